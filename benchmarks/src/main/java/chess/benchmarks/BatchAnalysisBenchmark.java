@@ -0,0 +1,95 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMovesCalculator;
+import chess.PositionAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check, mate, stalemate and legal-move count for every position two plies
+ * from Kiwipete, reported per position: one ChessGame per FEN and the status
+ * queries on it, against {@link PositionAnalyzer} by thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchAnalysisBenchmark {
+    //Kiwipete has 2039 positions two plies deep.
+    private static final int POSITIONS = 2039;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private final List<String> fens = new ArrayList<>(POSITIONS);
+    private final int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+    private ExecutorService executor;
+    private PositionAnalyzer analyzer;
+
+    @Setup
+    public void setUp() {
+        ChessGame game = BenchmarkPositions.game("kiwipete");
+        int[] replies = new int[ChessMovesCalculator.MAX_MOVES];
+        int count = game.legalMoves(moves);
+        for(int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            int replyCount = game.legalMoves(replies);
+            for(int j = 0; j < replyCount; j++) {
+                game.makeMove(replies[j]);
+                fens.add(game.toFen());
+                game.unmakeMove();
+            }
+            game.unmakeMove();
+        }
+        if(fens.size() != POSITIONS) {
+            throw new IllegalStateException("Expected " + POSITIONS + " positions, got " + fens.size());
+        }
+        executor = Executors.newFixedThreadPool(threads);
+        analyzer = new PositionAnalyzer(executor, 256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void perGame(Blackhole blackhole) {
+        for(String fen : fens) {
+            ChessGame game = ChessGame.fromFen(fen);
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            blackhole.consume(game.isInCheck(turn));
+            blackhole.consume(game.isInCheckmate(turn));
+            blackhole.consume(game.isInStalemate(turn));
+            blackhole.consume(game.legalMoves(moves));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public List<PositionAnalyzer.Analysis> batch() throws InterruptedException {
+        return analyzer.analyzeFens(fens);
+    }
+}
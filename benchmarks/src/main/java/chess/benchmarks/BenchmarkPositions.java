@@ -0,0 +1,26 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+
+/**
+ * Positions shared by the benchmarks, written in Forsyth-Edwards Notation.
+ */
+final class BenchmarkPositions {
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    //White to move has been mated along the back rank.
+    static final String BACK_RANK_MATE = "6k1/5ppp/8/8/8/8/5PPP/3r2K1 w - - 0 1";
+
+    private BenchmarkPositions() {
+
+    }
+
+    static ChessGame game(String name) {
+        return switch(name) {
+            case "start" -> new ChessGame();
+            case "kiwipete" -> ChessGame.fromFen(KIWIPETE);
+            case "backRankMate" -> ChessGame.fromFen(BACK_RANK_MATE);
+            default -> throw new IllegalArgumentException("Unknown position " + name);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessBoard equality, hashing and printing, which back caches, repetition
+ * checks and every board the client draws.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.game("kiwipete").getBoard();
+        equalBoard = BenchmarkPositions.game("kiwipete").getBoard();
+    }
+
+    @Benchmark
+    public boolean boardEquals() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public String boardToString() {
+        return board.toString();
+    }
+}
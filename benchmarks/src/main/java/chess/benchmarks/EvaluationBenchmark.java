@@ -0,0 +1,49 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.engine.Evaluation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tapered evaluation from the board's running piece-square sums, against
+ * recomputing the same sums over all 64 squares.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    @Param({"start", "kiwipete"})
+    public String position;
+
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.game(position);
+    }
+
+    @Benchmark
+    public int incremental() {
+        return Evaluation.evaluate(game);
+    }
+
+    @Benchmark
+    public int fromScratch() {
+        return Evaluation.evaluateFromScratch(game);
+    }
+}
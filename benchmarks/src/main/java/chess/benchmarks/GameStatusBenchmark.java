@@ -0,0 +1,114 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChessGame queries a client turn makes: legal moves for every piece of
+ * the side to move, and the check, checkmate and stalemate status. The single
+ * queries repeat on an unchanged position; clientTurn makes all of them on a
+ * fresh copy of the game, so nothing is cached when they start. applyMove
+ * is the other half of a turn: a move checked and played on a fresh copy,
+ * then the status of the side to move next. A mated position has no move
+ * to play, so there it times the status query alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStatusBenchmark {
+    @Param({"start", "kiwipete", "backRankMate"})
+    public String position;
+
+    private ChessGame game;
+    private ChessPosition[] ownPieces;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.game(position);
+        List<ChessPosition> found = new ArrayList<>();
+        for(int row = 1; row <= 8; row++) {
+            for(int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if(piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    found.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        ownPieces = found.toArray(new ChessPosition[0]);
+        for(ChessPosition piece : ownPieces) {
+            if(firstMove == null && !game.validMoves(piece).isEmpty()) {
+                firstMove = game.validMoves(piece).iterator().next();
+            }
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for(ChessPosition position : ownPieces) {
+            for(ChessMove move : game.validMoves(position)) {
+                blackhole.consume(move);
+            }
+        }
+    }
+
+    @Benchmark
+    public void clientTurn(Blackhole blackhole) {
+        ChessGame turn = new ChessGame(game);
+        ChessGame.TeamColor color = turn.getTeamTurn();
+        blackhole.consume(turn.isInCheck(color));
+        blackhole.consume(turn.isInCheckmate(color));
+        blackhole.consume(turn.isInStalemate(color));
+        for(ChessPosition position : ownPieces) {
+            blackhole.consume(turn.validMoves(position));
+        }
+        blackhole.consume(turn.isInCheck(color));
+    }
+
+    @Benchmark
+    public boolean applyMove() throws InvalidMoveException {
+        ChessGame turn = new ChessGame(game);
+        if(firstMove != null) {
+            turn.makeMove(firstMove);
+        }
+        ChessGame.TeamColor next = turn.getTeamTurn();
+        return turn.isInCheckmate(next) || turn.isInStalemate(next);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+}
@@ -0,0 +1,66 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.engine.LazySmpSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to depth of the Lazy SMP search by thread count. Every search starts
+ * from an empty transposition table, so earlier searches cannot help.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LazySmpScalingBenchmark {
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"start", "kiwipete"})
+    public String position;
+
+    @Param({"8"})
+    public int depth;
+
+    private ChessGame game;
+    private LazySmpSearch search;
+
+    @Setup(Level.Trial)
+    public void setUpGame() {
+        game = BenchmarkPositions.game(position);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpSearch() {
+        search = new LazySmpSearch(new TranspositionTable(64), threads);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownSearch() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+}
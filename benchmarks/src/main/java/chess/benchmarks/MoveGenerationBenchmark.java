@@ -0,0 +1,81 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessMovesCalculator;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation for every white piece of one type in Kiwipete,
+ * through both the ChessMove collection API and the packed move buffer API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType pieceType;
+
+    private ChessBoard board;
+    private ChessPosition[] positions;
+    private int[] squares;
+    private final int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.game("kiwipete").getBoard();
+        List<ChessPosition> found = new ArrayList<>();
+        for(int row = 1; row <= 8; row++) {
+            for(int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if(piece != null && piece.getTeamColor() == chess.ChessGame.TeamColor.WHITE
+                        && piece.getPieceType() == pieceType) {
+                    found.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        positions = found.toArray(new ChessPosition[0]);
+        squares = new int[positions.length];
+        for(int i = 0; i < positions.length; i++) {
+            squares[i] = (positions[i].getRow() - 1) * 8 + positions[i].getColumn() - 1;
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for(ChessPosition position : positions) {
+            for(ChessMove move : ChessMovesCalculator.pieceMoves(board, position)) {
+                blackhole.consume(move);
+            }
+        }
+    }
+
+    @Benchmark
+    public int pieceMovesPacked() {
+        int count = 0;
+        for(int square : squares) {
+            count = ChessMovesCalculator.pieceMoves(board, square, moves, count);
+        }
+        return count;
+    }
+}
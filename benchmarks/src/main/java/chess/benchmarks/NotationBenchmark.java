@@ -0,0 +1,89 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMovesCalculator;
+import chess.San;
+import chess.Uci;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading every legal move of Kiwipete in SAN and UCI, reported
+ * per move, with buffers reused as the PGN importer and the server would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotationBenchmark {
+    //Kiwipete has 48 legal moves.
+    private static final int MOVES = 48;
+
+    private ChessGame game;
+    private final int[] legal = new int[ChessMovesCalculator.MAX_MOVES];
+    private final int[] scratch = new int[ChessMovesCalculator.MAX_MOVES];
+    private final String[] san = new String[MOVES];
+    private final String[] uci = new String[MOVES];
+    private final StringBuilder text = new StringBuilder(16);
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.game("kiwipete");
+        int count = game.legalMoves(legal);
+        if(count != MOVES) {
+            throw new IllegalStateException("Expected " + MOVES + " moves, got " + count);
+        }
+        for(int i = 0; i < MOVES; i++) {
+            san[i] = San.format(game, legal[i]);
+            uci[i] = Uci.format(legal[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public void formatSan(Blackhole blackhole) {
+        for(int i = 0; i < MOVES; i++) {
+            text.setLength(0);
+            San.append(game, legal[i], scratch, text);
+            blackhole.consume(text.length());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public void parseSan(Blackhole blackhole) {
+        for(int i = 0; i < MOVES; i++) {
+            blackhole.consume(San.parse(game, san[i], 0, san[i].length(), scratch));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public void formatUci(Blackhole blackhole) {
+        for(int i = 0; i < MOVES; i++) {
+            blackhole.consume(Uci.format(legal[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public void parseUci(Blackhole blackhole) {
+        for(int i = 0; i < MOVES; i++) {
+            blackhole.consume(Uci.parse(game, uci[i], 0, uci[i].length(), scratch));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trips of a ChessGame, as the server does for storage and the
+ * WebSocket game updates, against the binary {@link GameCodec} on a reused buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"start", "kiwipete"})
+    public String position;
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+    private final ByteBuffer buffer = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+    private final ByteBuffer encoded = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.game(position);
+        json = gson.toJson(game);
+        GameCodec.encodePosition(game, encoded);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        buffer.clear();
+        GameCodec.encodePosition(game, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ChessGame decodeBinary() {
+        encoded.rewind();
+        return GameCodec.decodePosition(encoded);
+    }
+}
@@ -6,5 +6,6 @@ public class ServerMain {
     public static void main(String[] args) {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
+        System.out.printf("Move tables initialized in %.1f ms%n", MagicBitboards.initializationNanos() / 1e6);
     }
 }
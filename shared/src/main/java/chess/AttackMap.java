@@ -0,0 +1,103 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * The squares each side attacks on a board, worked out on first use and kept
+ * until the board changes.
+ * <p>
+ * A side's map is built with the other side's king lifted off the board, so a
+ * square behind that king on a checking line counts as attacked: the map is
+ * then exactly the set of squares the king may not move to, as well as
+ * telling whether it is in check.
+ * <p>
+ * Every read compares the board and its Zobrist key with those the maps were
+ * built for, so moves and edits made straight on the board both drop them
+ * without the board having to report changes. Whether each side is in check
+ * is kept the same way, and is found with a single-square test when its map
+ * has not been built, so check tests on every node of a search stay cheap.
+ */
+final class AttackMap {
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final long[] attacks = new long[2];
+    //Bit per color (1 << color) of the maps and check flags that are up to date
+    private int mapsKnown;
+    private int checksKnown;
+    private int checks;
+
+    private ChessBoard board;
+    private long boardKey;
+
+    /**
+     * @param color 0 = white, 1 = black
+     * @return Bitboard of the squares the color attacks, with the other king lifted off the board
+     */
+    long attacks(ChessBoard current, int color) {
+        sync(current);
+        if((mapsKnown & (1 << color)) == 0) {
+            attacks[color] = compute(current, color);
+            mapsKnown |= 1 << color;
+        }
+        return attacks[color];
+    }
+
+    /**
+     * @param color 0 = white, 1 = black
+     * @return Whether the color's king is attacked. A board without that king is never in check.
+     */
+    boolean inCheck(ChessBoard current, int color) {
+        sync(current);
+        int bit = 1 << color;
+        if((checksKnown & bit) == 0) {
+            boolean check = (mapsKnown & (1 << (1 - color))) != 0
+                    ? (attacks[1 - color] & current.pieceBitboards[color * 6 + KING]) != 0
+                    : ChessGame.isKingAttacked(current, color);
+            checks = check ? checks | bit : checks & ~bit;
+            checksKnown |= bit;
+        }
+        return (checks & bit) != 0;
+    }
+
+    /**
+     * Forgets everything known if the board is not the one it was worked out for.
+     */
+    private void sync(ChessBoard current) {
+        if(current != board || current.zobristKey != boardKey) {
+            board = current;
+            boardKey = current.zobristKey;
+            mapsKnown = 0;
+            checksKnown = 0;
+        }
+    }
+
+    static long compute(ChessBoard board, int color) {
+        long[] pieces = board.pieceBitboards;
+        int base = color * 6;
+        long occupied = board.occupancy() & ~pieces[(1 - color) * 6 + KING];
+        long attacked = 0;
+
+        for(long pawns = pieces[base + PAWN]; pawns != 0; pawns &= pawns - 1) {
+            attacked |= AttackTables.PAWN_ATTACKS[color][Long.numberOfTrailingZeros(pawns)];
+        }
+        for(long knights = pieces[base + KNIGHT]; knights != 0; knights &= knights - 1) {
+            attacked |= AttackTables.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(knights)];
+        }
+        for(long kings = pieces[base + KING]; kings != 0; kings &= kings - 1) {
+            attacked |= AttackTables.KING_ATTACKS[Long.numberOfTrailingZeros(kings)];
+        }
+        long queens = pieces[base + QUEEN];
+        for(long diagonal = pieces[base + BISHOP] | queens; diagonal != 0; diagonal &= diagonal - 1) {
+            attacked |= MagicBitboards.bishopAttacks(Long.numberOfTrailingZeros(diagonal), occupied);
+        }
+        for(long straight = pieces[base + ROOK] | queens; straight != 0; straight &= straight - 1) {
+            attacked |= MagicBitboards.rookAttacks(Long.numberOfTrailingZeros(straight), occupied);
+        }
+        return attacked;
+    }
+}
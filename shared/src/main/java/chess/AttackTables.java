@@ -0,0 +1,89 @@
+package chess;
+
+/**
+ * Precomputed attack sets for the pieces that jump to a fixed set of squares.
+ * <p>
+ * Every table is indexed by square (0 = a1, 63 = h8) and holds a bitboard of
+ * the squares a piece standing there attacks, so neither the move generator
+ * nor check detection has to bounds-check offsets at runtime.
+ * <p>
+ * The between and line tables describe how two squares are aligned, which is
+ * what finding pins and blocking squares comes down to.
+ */
+public final class AttackTables {
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    //Indexed [color][square], 0 = white, 1 = black
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    //Squares strictly between two squares on a shared rank, file or diagonal, else 0
+    static final long[][] BETWEEN = new long[64][64];
+    //Every square of the rank, file or diagonal through two squares, else 0
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightOffsets = {{-1,-2},{-2,-1},{-2,1},{-1,2},{1,-2},{2,-1},{2,1},{1,2}};
+        int[][] kingOffsets = {{-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1}};
+        for(int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetAttacks(square, knightOffsets);
+            KING_ATTACKS[square] = offsetAttacks(square, kingOffsets);
+            PAWN_ATTACKS[0][square] = offsetAttacks(square, new int[][]{{1,-1},{1,1}});
+            PAWN_ATTACKS[1][square] = offsetAttacks(square, new int[][]{{-1,-1},{-1,1}});
+        }
+        for(int from = 0; from < 64; from++) {
+            long fromBit = 1L << from;
+            for(int to = 0; to < 64; to++) {
+                long toBit = 1L << to;
+                if(from == to) {
+                    continue;
+                }
+                if((MagicBitboards.rookAttacks(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = MagicBitboards.rookAttacks(from, toBit) & MagicBitboards.rookAttacks(to, fromBit);
+                    LINE[from][to] = (MagicBitboards.rookAttacks(from, 0) & MagicBitboards.rookAttacks(to, 0)) | fromBit | toBit;
+                } else if((MagicBitboards.bishopAttacks(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = MagicBitboards.bishopAttacks(from, toBit) & MagicBitboards.bishopAttacks(to, fromBit);
+                    LINE[from][to] = (MagicBitboards.bishopAttacks(from, 0) & MagicBitboards.bishopAttacks(to, 0)) | fromBit | toBit;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {
+
+    }
+
+    /**
+     * @return Bitboard of the squares a knight on the given square attacks.
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return Bitboard of the squares a king on the given square attacks.
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return Bitboard of the squares a pawn of the given color (0 = white,
+     * 1 = black) on the given square attacks.
+     */
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    private static long offsetAttacks(int square, int[][] offsets) {
+        int row = square >>> 3;
+        int col = square & 7;
+        long attacks = 0;
+        for(int[] offset : offsets) {
+            int nextRow = row + offset[0];
+            int nextCol = col + offset[1];
+            if(nextRow >= 0 && nextRow <= 7 && nextCol >= 0 && nextCol <= 7) {
+                attacks |= 1L << (nextRow * 8 + nextCol);
+            }
+        }
+        return attacks;
+    }
+}
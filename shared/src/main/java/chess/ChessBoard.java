@@ -1,18 +1,55 @@
 package chess;
 import chess.ChessPiece.PieceType;
 import chess.ChessGame.TeamColor;
-import java.util.Objects;
+import java.util.Arrays;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Pieces are stored as bitboards: one 64-bit mask per color and piece type,
+ * indexed by {@link #pieceIndex(TeamColor, PieceType)}. Bit {@code n} of a mask
+ * is the square {@code n = (row - 1) * 8 + (column - 1)}, so a1 is bit 0 and h8
+ * is bit 63. A mailbox of piece indexes mirrors the bitboards so that looking
+ * up the piece on a single square does not have to scan all twelve masks.
+ * <p>
+ * The board also keeps the Zobrist key of its piece placement up to date as
+ * pieces are added and removed, which is what {@link #hashCode()} is built on,
+ * and likewise running sums of the {@link PieceSquareTables} values and game
+ * phase of its pieces, so evaluating a position does not have to scan it.
  */
 public class ChessBoard {
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    static final int NUM_PIECE_INDEXES = 12;
+    static final int NO_PIECE = -1;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    final long[] pieceBitboards = new long[NUM_PIECE_INDEXES];
+    final long[] colorBitboards = new long[2];
+    //Holds pieceIndex + 1 for each square so that 0 means empty.
+    final byte[] mailbox = new byte[64];
+    long zobristKey;
+    int midgameScore;
+    int endgameScore;
+    int phase;
+
     public ChessBoard() {
-        
+
+    }
+
+    /**
+     * Creates a copy of the given board.
+     */
+    public ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, NUM_PIECE_INDEXES);
+        System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, 2);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+        zobristKey = other.zobristKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
     }
 
     /**
@@ -22,7 +59,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = square(position);
+        removePiece(square);
+        if(piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -33,7 +74,34 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        int index = pieceAt(square(position));
+        if(index == NO_PIECE) {
+            return null;
+        }
+        return pieceFromIndex(index);
+    }
+
+    /**
+     * Gets the chess piece on a square by index, without going through a
+     * ChessPosition.
+     *
+     * @param square square index (0 = a1, 63 = h8)
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        int index = pieceAt(square);
+        if(index == NO_PIECE) {
+            return null;
+        }
+        return pieceFromIndex(index);
+    }
+
+    /**
+     * @return Bitboard of the given team's pieces of the given type, bit n being
+     * square n (0 = a1, 63 = h8).
+     */
+    public long getPieces(TeamColor color, PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
     }
 
     /**
@@ -41,68 +109,193 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        ChessPiece whitePiece;
-        ChessPiece blackPiece;
+        clear();
 
         PieceType[] pieceTypes = {PieceType.KING, PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
         int[][] piecePositions = {{4}, {3}, {2,5}, {1,6}, {0,7}};
 
         //Sets all pieces except PAWNs
         for(int i = 0; i < pieceTypes.length; i++) {
-            int[] positionSet = piecePositions[i];
-            PieceType currentPieceType = pieceTypes[i];
-
-            whitePiece = new ChessPiece(TeamColor.WHITE, pieceTypes[i]);
-            blackPiece = new ChessPiece(TeamColor.BLACK, pieceTypes[i]);
-            for(int position : positionSet) {
-                squares[0][position] = whitePiece;
-                squares[7][position] = blackPiece;
+            int whitePiece = pieceIndex(TeamColor.WHITE, pieceTypes[i]);
+            int blackPiece = pieceIndex(TeamColor.BLACK, pieceTypes[i]);
+            for(int column : piecePositions[i]) {
+                putPiece(column, whitePiece);
+                putPiece(56 + column, blackPiece);
             }
         }
 
         //Set PAWNs
-        whitePiece = new ChessPiece(TeamColor.WHITE,PieceType.PAWN);
-        blackPiece = new ChessPiece(TeamColor.BLACK,PieceType.PAWN);
-        for(int i = 0; i <=7; i++) {
-            squares[1][i] = whitePiece;
-            squares[6][i] = blackPiece;
+        int whitePawn = pieceIndex(TeamColor.WHITE, PieceType.PAWN);
+        int blackPawn = pieceIndex(TeamColor.BLACK, PieceType.PAWN);
+        for(int i = 0; i <= 7; i++) {
+            putPiece(8 + i, whitePawn);
+            putPiece(48 + i, blackPawn);
         }
     }
 
+    /**
+     * Removes every piece from the board.
+     */
+    void clear() {
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        Arrays.fill(mailbox, (byte) 0);
+        zobristKey = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+    }
+
+    /**
+     * Places a piece on an empty square.
+     *
+     * @param square     square index (0 = a1, 63 = h8)
+     * @param pieceIndex index from {@link #pieceIndex(TeamColor, PieceType)}
+     */
+    void putPiece(int square, int pieceIndex) {
+        long bit = 1L << square;
+        pieceBitboards[pieceIndex] |= bit;
+        colorBitboards[colorOf(pieceIndex)] |= bit;
+        mailbox[square] = (byte) (pieceIndex + 1);
+        zobristKey ^= Zobrist.pieceSquare(pieceIndex, square);
+        midgameScore += PieceSquareTables.MIDGAME[pieceIndex * 64 + square];
+        endgameScore += PieceSquareTables.ENDGAME[pieceIndex * 64 + square];
+        phase += PieceSquareTables.PHASE[pieceIndex];
+    }
+
+    /**
+     * Removes whatever piece is on the given square.
+     *
+     * @return The index of the removed piece, or NO_PIECE if the square was empty
+     */
+    int removePiece(int square) {
+        int pieceIndex = mailbox[square] - 1;
+        if(pieceIndex != NO_PIECE) {
+            long bit = ~(1L << square);
+            pieceBitboards[pieceIndex] &= bit;
+            colorBitboards[colorOf(pieceIndex)] &= bit;
+            mailbox[square] = 0;
+            zobristKey ^= Zobrist.pieceSquare(pieceIndex, square);
+            midgameScore -= PieceSquareTables.MIDGAME[pieceIndex * 64 + square];
+            endgameScore -= PieceSquareTables.ENDGAME[pieceIndex * 64 + square];
+            phase -= PieceSquareTables.PHASE[pieceIndex];
+        }
+        return pieceIndex;
+    }
+
+    /**
+     * @return The 64-bit Zobrist key of the piece placement. Side to move,
+     * castling and en passant are covered by {@link ChessGame#zobristKey()}.
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return Sum of the midgame {@link PieceSquareTables} values of every piece,
+     * positive when white is ahead.
+     */
+    public int midgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * @return Sum of the endgame {@link PieceSquareTables} values of every piece,
+     * positive when white is ahead.
+     */
+    public int endgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return Sum of the phase weights of every piece, from 0 with only kings and
+     * pawns left up to {@link PieceSquareTables#MAX_PHASE} for a full set.
+     */
+    public int gamePhase() {
+        return phase;
+    }
+
+    /**
+     * @return The index of the piece on the square, or NO_PIECE if it is empty.
+     */
+    int pieceAt(int square) {
+        return mailbox[square] - 1;
+    }
+
+    /**
+     * @return Bitboard of every occupied square.
+     */
+    long occupancy() {
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * @return Bitboard of the squares occupied by the given color (0 = white, 1 = black).
+     */
+    long colorOccupancy(int color) {
+        return colorBitboards[color];
+    }
+
+    /**
+     * @return Bitboard of the given color's pieces of the given type.
+     */
+    long pieces(int color, PieceType type) {
+        return pieceBitboards[color * 6 + type.ordinal()];
+    }
+
+    static int pieceIndex(TeamColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static int colorOf(int pieceIndex) {
+        return pieceIndex >= 6 ? 1 : 0;
+    }
+
+    static int typeOf(int pieceIndex) {
+        return pieceIndex % 6;
+    }
+
+    static ChessPiece pieceFromIndex(int pieceIndex) {
+        return ChessPiece.ofIndex(pieceIndex);
+    }
+
+    static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
     @Override
     public String toString() {
-        String output = "";
+        StringBuilder output = new StringBuilder(128);
         for(int i = 7; i >= 0; i--) {
-            for(int j = 0; j <=7; j++) {
-                ChessPiece piece = squares[i][j];
-                if(piece == null) {
-                    output += " ";
+            for(int j = 0; j <= 7; j++) {
+                int index = pieceAt(i * 8 + j);
+                if(index == NO_PIECE) {
+                    output.append(' ');
                 } else {
-                    String pieceChar;
-                    if(piece.getPieceType() == PieceType.KING) {
-                        pieceChar = "K";
-                    } else if(piece.getPieceType() == PieceType.QUEEN) {
-                        pieceChar = "Q";
-                    } else if(piece.getPieceType() == PieceType.BISHOP) {
-                        pieceChar = "B";
-                    } else if(piece.getPieceType() == PieceType.KNIGHT) {
-                        pieceChar = "N";
-                    } else if(piece.getPieceType() == PieceType.ROOK) {
-                        pieceChar = "R";
+                    char pieceChar;
+                    PieceType type = TYPES[typeOf(index)];
+                    if(type == PieceType.KING) {
+                        pieceChar = 'K';
+                    } else if(type == PieceType.QUEEN) {
+                        pieceChar = 'Q';
+                    } else if(type == PieceType.BISHOP) {
+                        pieceChar = 'B';
+                    } else if(type == PieceType.KNIGHT) {
+                        pieceChar = 'N';
+                    } else if(type == PieceType.ROOK) {
+                        pieceChar = 'R';
                     } else {
-                        pieceChar = "P";
-                    }
-                    if(piece.getTeamColor() == TeamColor.BLACK) {
-                        pieceChar.toLowerCase();
+                        pieceChar = 'P';
                     }
-                    output += pieceChar;
+                    output.append(pieceChar);
+                }
+                if(j < 7) {
+                    output.append('|');
                 }
-                output += "|";
             }
-            output = output.substring(0,output.length()-1);
-            output += "\n";
+            output.append('\n');
         }
-        return output;
+        return output.toString();
     }
 
     public boolean equals(Object obj) {
@@ -119,31 +312,10 @@ public class ChessBoard {
         }
 
         ChessBoard objBoard = (ChessBoard)obj;
-        for(int i = 0; i <= 7; i++) {
-            for(int j = 0; j <=7; j++) {
-                ChessPosition position = new ChessPosition(i+1,j+1);
-                //if(this.getPiece(position) != objBoard.getPiece(position)) {
-                ChessPiece thisPiece = this.getPiece(position);
-                ChessPiece objPiece = objBoard.getPiece(position);
-                if((thisPiece == null)) {
-                    if(thisPiece != objPiece){
-                        return false;
-                    }
-                } else if(!thisPiece.equals(objPiece)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return Arrays.equals(this.pieceBitboards, objBoard.pieceBitboards);
     }
 
     public int hashCode() {
-        int hash = 0;
-        for(int i = 0; i <= 7; i++) {
-            for(int j = 0; j <= 7; j ++) {
-                hash = 31 * hash + Objects.hashCode(squares[i][j]);
-            }
-        }
-        return hash;
+        return (int) (zobristKey ^ (zobristKey >>> 32));
     }
 }
@@ -1,24 +1,159 @@
 package chess;
 
+import chess.ChessPiece.PieceType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * A game belongs to one thread at a time. Even its queries, such as
+ * validMoves and isInCheckmate, fill caches and scratch buffers held on the
+ * instance, so threads that work on the same position each need their own
+ * copy, made with {@link #ChessGame(ChessGame)}.
  */
 public class ChessGame {
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int NO_SQUARE = -1;
+
+    //An undo record packs the move, captured piece index + 1, castling rights,
+    //en passant square + 1 and halfmove clock into one long.
+    private static final long UNDO_MOVE_MASK = (1L << 19) - 1;
+    private static final int UNDO_CAPTURED_SHIFT = 19;
+    private static final int UNDO_CASTLING_SHIFT = 23;
+    private static final int UNDO_EN_PASSANT_SHIFT = 27;
+    private static final int UNDO_HALFMOVE_SHIFT = 34;
+
+    //Positions kept for repetition checks; a power of two above the 100 plies of the fifty-move rule
+    private static final int POSITION_KEYS = 128;
+
+    //Values of statusMobility
+    private static final byte MOBILITY_UNKNOWN = 0;
+    private static final byte HAS_MOVES = 1;
+    private static final byte NO_MOVES = 2;
+    private static final byte MOVES_LISTED = 3;
+
+    private ChessBoard board;
+    private TeamColor teamTurn = TeamColor.WHITE;
+    //Bit set of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+    private int castlingRights;
+    //Square a pawn that just moved two spaces skipped over, or NO_SQUARE
+    private int enPassantSquare = NO_SQUARE;
+    private int halfmoveClock;
+    //Starts at 1 and goes up after each black move
+    private int fullmoveNumber = 1;
+
+    //Undo records of the moves played, and the board's Zobrist key before each one
+    private transient long[] undoStates = new long[64];
+    private transient long[] undoKeys = new long[64];
+    private transient int undoCount;
+    //Ring of the full Zobrist key of the position before each move, indexed by undo record.
+    //Records below oldestPositionKey have been overwritten or taken back past.
+    private transient long[] positionKeys = new long[POSITION_KEYS];
+    private transient int oldestPositionKey;
+    //Made on first use, so no constructor hands this to another object
+    private transient LegalMoveGenerator generator;
+    private final transient AttackMap attackMap = new AttackMap();
+    //What the status queries know about each color's legal moves in the current position:
+    //whether there are any, and the moves themselves once validMoves has asked, grouped by
+    //start square from statusMoveStarts[square]. Every method that changes the position
+    //clears it; statusBoard and statusKeys catch edits made straight on the board.
+    private transient ChessBoard statusBoard;
+    private final transient long[] statusKeys = new long[2];
+    private final transient byte[] statusMobility = new byte[2];
+    private final transient int[][] statusMoves = new int[2][];
+    private final transient int[][] statusMoveStarts = new int[2][];
+    //Scratch for the moves of the piece makeMove(ChessMove) moves, made on first use
+    private transient int[] pieceMoveBuffer;
+    //Scratch for see; search calls it at every node
+    private final transient int[] exchangeGains = new int[StaticExchange.MAX_EXCHANGE];
+    //Endgame tables for tablebaseResult, or null
+    private transient Tablebases tablebases;
 
     public ChessGame() {
+        board = new ChessBoard();
+        board.resetBoard();
+        castlingRights = inferCastlingRights(board);
+    }
 
+    /**
+     * Creates an independent copy of a game: its board, turn, castling rights,
+     * en passant square and the moves that can be taken back. Searching or
+     * analysing the copy leaves the original untouched.
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        undoStates = Arrays.copyOf(other.undoStates, other.undoStates.length);
+        undoKeys = Arrays.copyOf(other.undoKeys, other.undoKeys.length);
+        undoCount = other.undoCount;
+        positionKeys = other.positionKeys.clone();
+        oldestPositionKey = other.oldestPositionKey;
+        tablebases = other.tablebases;
+    }
+
+    ChessGame(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare, int halfmoveClock,
+              int fullmoveNumber) {
+        this.board = board;
+        this.teamTurn = turn;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+     * The halfmove clock and fullmove number may be left off.
+     *
+     * @param fen the position; read in place, without copying
+     * @return A game in that position, with no moves to take back
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Creates a game from a FEN position stored as ASCII bytes between the
+     * buffer's position and limit, such as a slice of a mapped training file.
+     * The buffer's position is left unchanged.
+     *
+     * @see #fromFen(CharSequence)
+     */
+    public static ChessGame fromFen(ByteBuffer fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return The position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        throw new RuntimeException("Not implemented");
+        return teamTurn;
     }
 
     /**
@@ -27,7 +162,8 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        throw new RuntimeException("Not implemented");
+        teamTurn = team;
+        clearStatus();
     }
 
     /**
@@ -46,7 +182,19 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        throw new RuntimeException("Not implemented");
+        int square = ChessBoard.square(startPosition);
+        if(board.pieceAt(square) == ChessBoard.NO_PIECE) {
+            return null;
+        }
+        int color = ChessBoard.colorOf(board.pieceAt(square));
+        listStatusMoves(color);
+        int start = statusMoveStarts[color][square];
+        int end = statusMoveStarts[color][square + 1];
+        Collection<ChessMove> validMoves = new ArrayList<>(end - start);
+        for(int i = start; i < end; i++) {
+            validMoves.add(PackedMove.toChessMove(statusMoves[color][i]));
+        }
+        return validMoves;
     }
 
     /**
@@ -56,7 +204,41 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        throw new RuntimeException("Not implemented");
+        int square = ChessBoard.square(move.getStartPosition());
+        int pieceIndex = board.pieceAt(square);
+        if(pieceIndex == ChessBoard.NO_PIECE) {
+            throw new InvalidMoveException("No piece at " + move.getStartPosition());
+        }
+        if(ChessBoard.colorOf(pieceIndex) != teamTurn.ordinal()) {
+            throw new InvalidMoveException("It is not " + TeamColor.values()[ChessBoard.colorOf(pieceIndex)] + "'s turn");
+        }
+
+        int requested = PackedMove.fromChessMove(move);
+        int color = teamTurn.ordinal();
+        int[] moves;
+        int start;
+        int end;
+        //Moves validMoves has listed are reused; otherwise only the moving piece's are generated.
+        if(statusMobility(color) == MOVES_LISTED) {
+            moves = statusMoves[color];
+            start = statusMoveStarts[color][square];
+            end = statusMoveStarts[color][square + 1];
+        } else {
+            if(pieceMoveBuffer == null) {
+                pieceMoveBuffer = new int[ChessMovesCalculator.MAX_MOVES];
+            }
+            moves = pieceMoveBuffer;
+            start = 0;
+            generator().setUp(color);
+            end = generator.pieceMoves(square, moves, 0);
+        }
+        for(int i = start; i < end; i++) {
+            if(PackedMove.sameMove(moves[i], requested)) {
+                makeMove(moves[i]);
+                return;
+            }
+        }
+        throw new InvalidMoveException("Illegal move " + move);
     }
 
     /**
@@ -66,7 +248,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return attackMap.inCheck(board, teamColor.ordinal());
     }
 
     /**
@@ -76,7 +258,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return isInCheck(teamColor) && !hasLegalMove(teamColor.ordinal());
     }
 
     /**
@@ -87,7 +269,61 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor.ordinal());
+    }
+
+    /**
+     * Determines if the current position has occurred at least three times,
+     * with the same side to move, castling rights and en passant capture.
+     * <p>
+     * Positions are compared by Zobrist key, and only back to the last capture,
+     * pawn move or start of the recorded history, since no position before an
+     * irreversible move can come back. The fifty-move rule bounds that scan.
+     *
+     * @return True if the position is a threefold repetition
+     */
+    public boolean isThreefoldRepetition() {
+        long key = zobristKey();
+        int oldest = Math.max(oldestPositionKey, Math.max(0, undoCount - halfmoveClock));
+        int seen = 0;
+        //Only positions an even number of moves back have the same side to move.
+        for(int i = undoCount - 2; i >= oldest; i -= 2) {
+            if(positionKeys[i & (POSITION_KEYS - 1)] == key && ++seen == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if fifty moves by each side have been played without a
+     * capture or pawn move. A move that checkmates on the hundredth ply
+     * still wins, so this is false if the side to move is checkmated.
+     *
+     * @return True if the game can be drawn under the fifty-move rule
+     */
+    public boolean isFiftyMoveDraw() {
+        return halfmoveClock >= 100 && !isInCheckmate(teamTurn);
+    }
+
+    /**
+     * Attaches endgame tables, which {@link #tablebaseResult()} looks the
+     * position up in. Copies of the game share them.
+     *
+     * @param tablebases the tables, or null to detach them
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Looks the current position up in the attached endgame tables.
+     *
+     * @return The outcome for the side to move under perfect play, or null if no
+     * tables are attached or none covers the position
+     */
+    public TablebaseResult tablebaseResult() {
+        return tablebases == null ? null : tablebases.probe(this);
     }
 
     /**
@@ -96,7 +332,28 @@ public class ChessGame {
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        throw new RuntimeException("Not implemented");
+        this.board = board;
+        castlingRights = inferCastlingRights(board);
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        undoCount = 0;
+        clearStatus();
+    }
+
+    /**
+     * Sets the state that does not show on the board, for positions that come
+     * from somewhere other than a game played from the start. Clears the moves
+     * that can be taken back.
+     */
+    void setState(TeamColor turn, int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.teamTurn = turn;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        undoCount = 0;
+        clearStatus();
     }
 
     /**
@@ -105,6 +362,446 @@ public class ChessGame {
      * @return the chessboard
      */
     public ChessBoard getBoard() {
-        throw new RuntimeException("Not implemented");
+        return board;
+    }
+
+    /**
+     * Writes every legal move of the team whose turn it is into a move buffer.
+     *
+     * @param moves buffer of at least {@link ChessMovesCalculator#MAX_MOVES} entries
+     * @return The number of legal moves written
+     */
+    public int legalMoves(int[] moves) {
+        generator().setUp(teamTurn.ordinal());
+        return generator.allMoves(moves, 0);
+    }
+
+    private LegalMoveGenerator generator() {
+        if(generator == null) {
+            generator = new LegalMoveGenerator(this);
+        }
+        return generator;
+    }
+
+    /**
+     * @param color 0 = white, 1 = black
+     * @return What is known about the color's legal moves in the current position
+     */
+    private byte statusMobility(int color) {
+        if(statusBoard != board) {
+            statusBoard = board;
+            clearStatus();
+        }
+        long key = zobristKey();
+        if(statusKeys[color] != key) {
+            statusKeys[color] = key;
+            statusMobility[color] = MOBILITY_UNKNOWN;
+        }
+        return statusMobility[color];
+    }
+
+    private void clearStatus() {
+        statusMobility[0] = MOBILITY_UNKNOWN;
+        statusMobility[1] = MOBILITY_UNKNOWN;
+    }
+
+    /**
+     * @return Whether the color has a legal move, stopping at the first one the
+     * first time it is asked in a position
+     */
+    private boolean hasLegalMove(int color) {
+        byte mobility = statusMobility(color);
+        if(mobility == MOVES_LISTED) {
+            return statusMoveStarts[color][64] > 0;
+        }
+        if(mobility == MOBILITY_UNKNOWN) {
+            generator().setUp(color, attackMap.attacks(board, 1 - color));
+            mobility = generator.hasLegalMove() ? HAS_MOVES : NO_MOVES;
+            statusMobility[color] = mobility;
+        }
+        return mobility != NO_MOVES;
+    }
+
+    /**
+     * Generates the color's legal moves into its status buffers, square by
+     * square, unless they already hold them for the current position.
+     */
+    private void listStatusMoves(int color) {
+        if(statusMobility(color) == MOVES_LISTED) {
+            return;
+        }
+        if(statusMoves[color] == null) {
+            statusMoves[color] = new int[ChessMovesCalculator.MAX_MOVES];
+            statusMoveStarts[color] = new int[65];
+        }
+        int[] moves = statusMoves[color];
+        int[] starts = statusMoveStarts[color];
+        generator().setUp(color, attackMap.attacks(board, 1 - color));
+        long own = board.colorOccupancy(color);
+        int count = 0;
+        for(int square = 0; square < 64; square++) {
+            starts[square] = count;
+            if((own & (1L << square)) != 0) {
+                count = generator.pieceMoves(square, moves, count);
+            }
+        }
+        starts[64] = count;
+        statusMobility[color] = MOVES_LISTED;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth. The counts
+     * of well known positions are published, which makes this the standard
+     * correctness check for a move generator, and timing it measures generator
+     * throughput.
+     *
+     * @param depth number of plies to search
+     * @return Number of positions reached after exactly depth plies
+     */
+    public long perft(int depth) {
+        if(depth <= 0) {
+            return 1;
+        }
+        return perft(depth, new int[depth][ChessMovesCalculator.MAX_MOVES]);
+    }
+
+    /**
+     * Splits a perft count by root move, which is how a wrong count is tracked
+     * down to the move that causes it.
+     *
+     * @param depth number of plies to search, at least 1
+     * @return Node count below each legal root move, in generation order
+     */
+    public Map<ChessMove, Long> perftDivide(int depth) {
+        if(depth < 1) {
+            throw new IllegalArgumentException("Divide depth must be at least 1");
+        }
+        int[][] buffers = new int[depth][ChessMovesCalculator.MAX_MOVES];
+        int[] moves = buffers[depth - 1];
+        int count = legalMoves(moves);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for(int i = 0; i < count; i++) {
+            makeMove(moves[i]);
+            counts.put(PackedMove.toChessMove(moves[i]), depth == 1 ? 1 : perft(depth - 1, buffers));
+            unmakeMove();
+        }
+        return counts;
+    }
+
+    private long perft(int depth, int[][] buffers) {
+        int[] moves = buffers[depth - 1];
+        int count = legalMoves(moves);
+        //Leaf counts come straight from the move count, without playing the last ply.
+        if(depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for(int i = 0; i < count; i++) {
+            makeMove(moves[i]);
+            nodes += perft(depth - 1, buffers);
+            unmakeMove();
+        }
+        return nodes;
+    }
+
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return Whether the side to move has a pawn next to the en passant square
+     * that could capture there
+     */
+    boolean canCaptureEnPassant() {
+        if(enPassantSquare == NO_SQUARE) {
+            return false;
+        }
+        int mover = teamTurn.ordinal();
+        long pawns = board.pieceBitboards[mover * 6 + PieceType.PAWN.ordinal()];
+        return (AttackTables.PAWN_ATTACKS[1 - mover][enPassantSquare] & pawns) != 0;
+    }
+
+    /**
+     * Plays a packed move from the move generator on the game's board in place,
+     * and pushes an undo record so {@link #unmakeMove()} can take it back.
+     * <p>
+     * The move is not checked for legality; use {@link #makeMove(ChessMove)} for
+     * moves that come from players.
+     *
+     * @param move packed move as produced by the move generator, flags included
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        clearStatus();
+
+        if(undoCount == undoStates.length) {
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoCount * 2);
+        }
+        undoKeys[undoCount] = board.zobristKey;
+        positionKeys[undoCount & (POSITION_KEYS - 1)] = zobristKey();
+        if(undoCount < oldestPositionKey) {
+            oldestPositionKey = undoCount;
+        } else if(undoCount - oldestPositionKey >= POSITION_KEYS) {
+            oldestPositionKey = undoCount - POSITION_KEYS + 1;
+        }
+
+        int pieceIndex = board.removePiece(from);
+        int captured;
+        if(PackedMove.hasFlag(move, PackedMove.FLAG_EN_PASSANT)) {
+            //The captured pawn sits beside the moving pawn, on the row it started from.
+            captured = board.removePiece((from & ~7) | (to & 7));
+        } else {
+            captured = board.removePiece(to);
+        }
+
+        undoStates[undoCount++] = (move & UNDO_MOVE_MASK)
+                | ((long) (captured + 1) << UNDO_CAPTURED_SHIFT)
+                | ((long) castlingRights << UNDO_CASTLING_SHIFT)
+                | ((long) (enPassantSquare + 1) << UNDO_EN_PASSANT_SHIFT)
+                | ((long) halfmoveClock << UNDO_HALFMOVE_SHIFT);
+
+        int promotion = PackedMove.promotion(move);
+        board.putPiece(to, promotion == 0 ? pieceIndex : ChessBoard.colorOf(pieceIndex) * 6 + promotion - 1);
+        if(PackedMove.hasFlag(move, PackedMove.FLAG_CASTLE)) {
+            board.putPiece((from + to) / 2, board.removePiece(to > from ? from + 3 : from - 4));
+        }
+
+        //Moving the king or a rook, or capturing a rook on its home square, loses castling rights.
+        castlingRights &= ~(castlingRightsLost(from) | castlingRightsLost(to));
+        if(ChessBoard.typeOf(pieceIndex) == PieceType.KING.ordinal()) {
+            castlingRights &= ChessBoard.colorOf(pieceIndex) == 0
+                    ? ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) : ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+
+        if(captured != ChessBoard.NO_PIECE || ChessBoard.typeOf(pieceIndex) == PieceType.PAWN.ordinal()) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        enPassantSquare = PackedMove.hasFlag(move, PackedMove.FLAG_DOUBLE_PUSH) ? (from + to) / 2 : NO_SQUARE;
+        if(teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)} or
+     * {@link #makeMove(ChessMove)}, restoring the board and game state from its
+     * undo record.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if(undoCount == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        clearStatus();
+        long state = undoStates[--undoCount];
+        int move = (int) (state & UNDO_MOVE_MASK);
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int captured = (int) ((state >>> UNDO_CAPTURED_SHIFT) & 15) - 1;
+
+        if(PackedMove.hasFlag(move, PackedMove.FLAG_CASTLE)) {
+            board.putPiece(to > from ? from + 3 : from - 4, board.removePiece((from + to) / 2));
+        }
+        int pieceIndex = board.removePiece(to);
+        if(PackedMove.promotion(move) != 0) {
+            pieceIndex = ChessBoard.colorOf(pieceIndex) * 6 + PieceType.PAWN.ordinal();
+        }
+        board.putPiece(from, pieceIndex);
+        if(captured != ChessBoard.NO_PIECE) {
+            boolean enPassant = PackedMove.hasFlag(move, PackedMove.FLAG_EN_PASSANT);
+            board.putPiece(enPassant ? (from & ~7) | (to & 7) : to, captured);
+        }
+
+        castlingRights = (int) ((state >>> UNDO_CASTLING_SHIFT) & 15);
+        enPassantSquare = (int) ((state >>> UNDO_EN_PASSANT_SHIFT) & 127) - 1;
+        halfmoveClock = (int) (state >>> UNDO_HALFMOVE_SHIFT);
+        board.zobristKey = undoKeys[undoCount];
+        teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        if(teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * Static exchange evaluation of a move: the material it wins or loses once
+     * every capture and recapture on its end square has been played out, with
+     * each side free to stop whenever continuing would cost it. Nothing is
+     * played on the board, so this is cheap enough to screen every capture
+     * in a search, or to reject a suggested move that simply hangs a piece.
+     *
+     * @param move move of a piece on the board; it is not checked for legality
+     * @return Centipawns won by the moving side, negative if the move loses material
+     * @throws IllegalArgumentException if there is no piece on the move's start position
+     */
+    public int see(ChessMove move) {
+        int packed = PackedMove.fromChessMove(move);
+        int pieceIndex = board.pieceAt(PackedMove.from(packed));
+        if(pieceIndex == ChessBoard.NO_PIECE) {
+            throw new IllegalArgumentException("No piece at " + move.getStartPosition());
+        }
+        int to = PackedMove.to(packed);
+        if(ChessBoard.typeOf(pieceIndex) == PieceType.PAWN.ordinal() && to == enPassantSquare
+                && (to & 7) != (PackedMove.from(packed) & 7)) {
+            packed |= PackedMove.FLAG_EN_PASSANT;
+        }
+        return StaticExchange.evaluate(board, packed, exchangeGains);
+    }
+
+    /**
+     * @param move packed move from the move generator
+     * @see #see(ChessMove)
+     */
+    public int see(int move) {
+        return StaticExchange.evaluate(board, move, exchangeGains);
+    }
+
+    /**
+     * @return Number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return Number of moves that can be taken back with {@link #unmakeMove()}
+     */
+    int historyLength() {
+        return undoCount;
+    }
+
+    /**
+     * @param index 0 for the oldest move that can be taken back
+     * @return The packed move played, flags included
+     */
+    int historyMove(int index) {
+        return (int) (undoStates[index] & UNDO_MOVE_MASK);
+    }
+
+    /**
+     * @return Number of the current move, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    private static int castlingRightsLost(int square) {
+        switch(square) {
+            case 0: return WHITE_QUEENSIDE;
+            case 7: return WHITE_KINGSIDE;
+            case 56: return BLACK_QUEENSIDE;
+            case 63: return BLACK_KINGSIDE;
+            default: return 0;
+        }
+    }
+
+    /**
+     * A board handed to the game carries no move history, so castling is assumed
+     * available wherever the king and rook are still on their starting squares.
+     */
+    static int inferCastlingRights(ChessBoard board) {
+        int rights = 0;
+        int whiteKing = ChessBoard.pieceIndex(TeamColor.WHITE, PieceType.KING);
+        int whiteRook = ChessBoard.pieceIndex(TeamColor.WHITE, PieceType.ROOK);
+        int blackKing = ChessBoard.pieceIndex(TeamColor.BLACK, PieceType.KING);
+        int blackRook = ChessBoard.pieceIndex(TeamColor.BLACK, PieceType.ROOK);
+        if(board.pieceAt(4) == whiteKing) {
+            rights |= board.pieceAt(7) == whiteRook ? WHITE_KINGSIDE : 0;
+            rights |= board.pieceAt(0) == whiteRook ? WHITE_QUEENSIDE : 0;
+        }
+        if(board.pieceAt(60) == blackKing) {
+            rights |= board.pieceAt(63) == blackRook ? BLACK_KINGSIDE : 0;
+            rights |= board.pieceAt(56) == blackRook ? BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+
+    /**
+     * @return Whether the square can be the en passant square with the given team to
+     * move: empty, on the rank the other team's pawns skip with a double push, and
+     * with one of those pawns right in front of it
+     */
+    static boolean isEnPassantSquare(ChessBoard board, TeamColor turn, int square) {
+        int mover = turn.ordinal();
+        int expectedRow = mover == 0 ? 5 : 2;
+        if((square >>> 3) != expectedRow || board.pieceAt(square) != ChessBoard.NO_PIECE) {
+            return false;
+        }
+        int pawnSquare = mover == 0 ? square - 8 : square + 8;
+        return board.pieceAt(pawnSquare) == (1 - mover) * 6 + PieceType.PAWN.ordinal();
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of the position: piece placement, side to
+     * move, castling rights, and the en passant file when the side to move has
+     * a pawn that could capture there.
+     * <p>
+     * The placement part is kept up to date incrementally by the board as pieces
+     * are added and removed, so this is O(1).
+     *
+     * @return The position's Zobrist key
+     */
+    public long zobristKey() {
+        long key = board.zobristKey() ^ Zobrist.CASTLING[castlingRights];
+        if(teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if(canCaptureEnPassant()) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        return key;
+    }
+
+    /**
+     * @return Whether the king of the given color (0 = white, 1 = black) is attacked.
+     * A board without that king is never in check.
+     */
+    static boolean isKingAttacked(ChessBoard board, int color) {
+        long king = board.pieceBitboards[color * 6 + PieceType.KING.ordinal()];
+        if(king == 0) {
+            return false;
+        }
+        return ChessMovesCalculator.isSquareAttacked(board, Long.numberOfTrailingZeros(king), 1 - color);
+    }
+
+    @Override
+    public String toString() {
+        return teamTurn + " to move\n" + board;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == null) {
+            return false;
+        }
+
+        if(obj == this) {
+            return true;
+        }
+
+        if(obj.getClass() != this.getClass()) {
+            return false;
+        }
+
+        ChessGame game = (ChessGame)obj;
+        return (this.teamTurn == game.teamTurn &&
+                this.castlingRights == game.castlingRights &&
+                this.enPassantSquare == game.enPassantSquare &&
+                Objects.equals(this.board, game.board));
+    }
+
+    @Override
+    public int hashCode() {
+        long key = zobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
@@ -10,6 +10,14 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    /**
+     * Shared instances indexed by the start, end and promotion fields of a
+     * packed move (see {@link PackedMove#MOVE_MASK}). Filled in as moves are
+     * first requested; a lost race only creates an equal duplicate, and the
+     * final fields make publishing an instance through the array safe.
+     */
+    private static final ChessMove[] MOVES = new ChessMove[PackedMove.MOVE_MASK + 1];
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -21,6 +29,36 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance for a move. Moves are immutable, so callers
+     * should prefer this to the constructor.
+     *
+     * @return The shared move between two on-board squares, or a new move if
+     * either position is off the board
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if(!ChessMovesCalculator.isSquareInBounds(startPosition) || !ChessMovesCalculator.isSquareInBounds(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        return ofPacked(PackedMove.encode(ChessBoard.square(startPosition), ChessBoard.square(endPosition), promotion, 0));
+    }
+
+    /**
+     * @return The shared move for a packed move; its flags are ignored
+     */
+    static ChessMove ofPacked(int packedMove) {
+        int index = packedMove & PackedMove.MOVE_MASK;
+        ChessMove move = MOVES[index];
+        if(move == null) {
+            move = new ChessMove(ChessPosition.ofSquare(PackedMove.from(packedMove)),
+                    ChessPosition.ofSquare(PackedMove.to(packedMove)), PackedMove.promotionPiece(packedMove));
+            MOVES[index] = move;
+        }
+        return move;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -47,7 +85,7 @@ public class ChessMove {
 
     @Override
     public String toString() {
-        return String.format("%s%s", startPosition, endPosition);
+        return startPosition.toString() + endPosition;
     }
 
     public boolean equals(Object obj) {
@@ -9,8 +9,27 @@ import chess.ChessGame.TeamColor;
  * Identifies all possible moves for a piece.
  * <p>
  * Note: This class exists to simplify the ChessPiece class.
+ * <p>
+ * Moves are generated as packed ints (see {@link PackedMove}) into a move
+ * buffer owned by the caller, so generation itself allocates nothing. The
+ * methods returning a Collection of ChessMove are adapters over that path.
  */
 public class ChessMovesCalculator {
+    /**
+     * Large enough to hold every pseudo-legal move of any reachable position.
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * Large enough to hold every move of a single piece (a queen has at most 27,
+     * a pawn at most 12 counting promotions).
+     */
+    public static final int MAX_PIECE_MOVES = 32;
+
+    private static final int[] PROMOTION_CODES = {
+            PieceType.QUEEN.ordinal() + 1, PieceType.BISHOP.ordinal() + 1,
+            PieceType.KNIGHT.ordinal() + 1, PieceType.ROOK.ordinal() + 1};
+
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -19,154 +38,103 @@ public class ChessMovesCalculator {
      * @return Collection of valid moves
      */
     public static Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition currentPosition) {
-        PieceType moveType = board.getPiece(currentPosition).getPieceType();
-        switch(moveType) {
-            case PieceType.KING:
-                return moveKing(board, currentPosition);
-            case PieceType.QUEEN:
-                return moveQueen(board, currentPosition);
-            case PieceType.BISHOP:
-                return moveBishop(board, currentPosition);
-            case PieceType.KNIGHT:
-                return moveKnight(board, currentPosition);
-            case PieceType.ROOK:
-                return moveRook(board, currentPosition);
-            case PieceType.PAWN:
-                return movePawn(board, currentPosition);
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = pieceMoves(board, ChessBoard.square(currentPosition), moves, 0);
+        return toChessMoves(moves, count);
+    }
+
+    /**
+     * Writes the moves of the piece on the given square into a move buffer.
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger.
+     *
+     * @param square square index of the piece (0 = a1, 63 = h8)
+     * @param moves  buffer receiving packed moves
+     * @param count  number of moves already in the buffer
+     * @return The number of moves in the buffer after adding this piece's moves
+     */
+    public static int pieceMoves(ChessBoard board, int square, int[] moves, int count) {
+        int pieceIndex = board.pieceAt(square);
+        int color = ChessBoard.colorOf(pieceIndex);
+        switch(ChessBoard.typeOf(pieceIndex)) {
+            case 0:
+                return tableMoves(board, square, color, AttackTables.KING_ATTACKS[square], moves, count);
+            case 1:
+                return tableMoves(board, square, color, MagicBitboards.queenAttacks(square, board.occupancy()), moves, count);
+            case 2:
+                return tableMoves(board, square, color, MagicBitboards.bishopAttacks(square, board.occupancy()), moves, count);
+            case 3:
+                return tableMoves(board, square, color, AttackTables.KNIGHT_ATTACKS[square], moves, count);
+            case 4:
+                return tableMoves(board, square, color, MagicBitboards.rookAttacks(square, board.occupancy()), moves, count);
+            case 5:
+                return pawnMoves(board, square, color, moves, count);
         }
         throw new RuntimeException("Provided piece type not recognized.");
     }
 
+    /**
+     * Writes the moves of every piece of the given team into a move buffer.
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger.
+     *
+     * @return The number of moves in the buffer after adding the team's moves
+     */
+    public static int teamMoves(ChessBoard board, TeamColor teamColor, int[] moves, int count) {
+        long pieces = board.colorOccupancy(teamColor.ordinal());
+        while(pieces != 0) {
+            count = pieceMoves(board, Long.numberOfTrailingZeros(pieces), moves, count);
+            pieces &= pieces - 1;
+        }
+        return count;
+    }
+
     /**
      * @return Possible moves if the given piece is a King.
      */
     public static Collection<ChessMove> moveKing(ChessBoard board, ChessPosition currentPosition) {
-        int[][]relativePositions = {{-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1}};
-        return validMovesSpecificPoints(board, currentPosition, relativePositions);
+        return validMovesTable(board, currentPosition, AttackTables.KING_ATTACKS[ChessBoard.square(currentPosition)]);
     }
 
     /**
      * @return Possible moves if the given piece is a Queen.
      */
     public static Collection<ChessMove> moveQueen(ChessBoard board, ChessPosition currentPosition) {
-        Collection<ChessMove> allPossibleMoves = new ArrayList<ChessMove>();
-
-        //Adding Diagonal Moves
-        allPossibleMoves.addAll(moveBishop(board,currentPosition));
-        //Adding Straight Lines
-        allPossibleMoves.addAll(moveRook(board,currentPosition));
-
-        return allPossibleMoves;
+        int square = ChessBoard.square(currentPosition);
+        return validMovesTable(board, currentPosition, MagicBitboards.queenAttacks(square, board.occupancy()));
     }
 
     /**
      * @return Possible moves if the given piece is a Bishop.
      */
     public static Collection<ChessMove> moveBishop(ChessBoard board, ChessPosition currentPosition) {
-        Collection<ChessMove> allPossibleMoves = new ArrayList<ChessMove>();
-        //Moves Up-Left
-        int[] modifier = {1,-1};
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Up-Right
-        modifier[1] = 1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Down-Right
-        modifier[0] = -1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Down-Left
-        modifier[1] = -1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        return allPossibleMoves;
+        int square = ChessBoard.square(currentPosition);
+        return validMovesTable(board, currentPosition, MagicBitboards.bishopAttacks(square, board.occupancy()));
     }
 
     /**
      * @return Possible moves if the given piece is a Knight.
      */
     public static Collection<ChessMove> moveKnight(ChessBoard board, ChessPosition currentPosition) {
-        int[][]relativePositions = {{-1,-2},{-2,-1},{-2,1},{-1,2},{1,-2},{2,-1},{2,1},{1,2}};
-        return validMovesSpecificPoints(board, currentPosition, relativePositions);
+        return validMovesTable(board, currentPosition, AttackTables.KNIGHT_ATTACKS[ChessBoard.square(currentPosition)]);
     }
 
     /**
      * @return Possible moves if the given piece is a Rook.
      */
     public static Collection<ChessMove> moveRook(ChessBoard board, ChessPosition currentPosition) {
-        Collection<ChessMove> allPossibleMoves = new ArrayList<ChessMove>();
-        //Moves Up
-        int[] modifier = {1,0};
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Down
-        modifier[0] = -1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Right
-        modifier[0] = 0;
-        modifier[1] = 1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        //Moves Left
-        modifier[1] = -1;
-        allPossibleMoves.addAll(validMovesLine(board,currentPosition,modifier));
-
-        return allPossibleMoves;
+        int square = ChessBoard.square(currentPosition);
+        return validMovesTable(board, currentPosition, MagicBitboards.rookAttacks(square, board.occupancy()));
     }
 
     /**
      * @return Possible moves if the given piece is a Pawn.
      */
     public static Collection<ChessMove> movePawn(ChessBoard board, ChessPosition currentPosition) {
-        ArrayList<ChessMove> allPossibleMoves = new ArrayList<ChessMove>();
-        ChessPiece piece = board.getPiece(currentPosition);
-        int currentRow = currentPosition.getRow();
-        int currentCol = currentPosition.getColumn();
-
-        //Defining direction of movement based on color.
-        int direction = 1;
-        if(piece.getTeamColor() == TeamColor.BLACK){
-            direction = -1;
-        }
-
-        //Mark possible promotions.
-        PieceType[] promotionTypeList = {null};
-        if((currentRow + direction == 1) || (currentRow + direction == 8)) {
-            promotionTypeList = new PieceType[]{PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
-        }
-
-        //Move Forward 1 space
-        ChessPosition possibleMove = new ChessPosition(currentRow + direction, currentCol);
-        if(isSquareOpen(board, possibleMove)) {
-            //allPossibleMoves.add(new ChessMove(currentPosition, possibleMove, promotion));
-            addPossiblePawnMoves(currentPosition, possibleMove, promotionTypeList, allPossibleMoves);
-
-            //Move Forward 2 spaces
-            if((currentRow == 2) || (currentRow == 7)) {
-                possibleMove = new ChessPosition(currentRow + (2 * direction), currentCol);
-                if (isSquareInBounds(possibleMove) && isSquareOpen(board, possibleMove)) {
-                    //allPossibleMoves.add(new ChessMove(currentPosition, possibleMove, promotion));
-                    addPossiblePawnMoves(currentPosition, possibleMove, promotionTypeList, allPossibleMoves);
-                }
-            }
-        }
-
-
-        //Move diagonals
-        possibleMove = new ChessPosition(currentRow + direction, currentCol+1);
-        if(canPawnCapture(board, possibleMove, piece.getTeamColor())) {
-            //allPossibleMoves.add(new ChessMove(currentPosition, possibleMove, promotion));
-            addPossiblePawnMoves(currentPosition, possibleMove, promotionTypeList, allPossibleMoves);
-        }
-        possibleMove = new ChessPosition(currentRow + direction, currentCol-1);
-        if(canPawnCapture(board, possibleMove, piece.getTeamColor())) {
-            //allPossibleMoves.add(new ChessMove(currentPosition, possibleMove, promotion));
-            addPossiblePawnMoves(currentPosition, possibleMove, promotionTypeList, allPossibleMoves);
-        }
-
-        return allPossibleMoves;
+        int square = ChessBoard.square(currentPosition);
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = pawnMoves(board, square, ChessBoard.colorOf(board.pieceAt(square)), moves, 0);
+        return toChessMoves(moves, count);
     }
 
     /**
@@ -175,7 +143,7 @@ public class ChessMovesCalculator {
      */
     public static void addPossiblePawnMoves(ChessPosition currentPosition, ChessPosition possibleMove, PieceType[] promotionTypeList, ArrayList<ChessMove> moveList) {
         for (PieceType promotion : promotionTypeList) {
-            moveList.add(new ChessMove(currentPosition, possibleMove, promotion));
+            moveList.add(ChessMove.of(currentPosition, possibleMove, promotion));
         }
     }
 
@@ -202,8 +170,7 @@ public class ChessMovesCalculator {
 
         //Check if occupying piece is enemy piece
         if(isEnemyPosition(board, position, attackerColor)) {
-            TeamColor enemyColor = board.getPiece(position).getTeamColor();
-            return enemyColor;
+            return colorAt(board, position);
         }
         //Position is occupied by a friendly piece.
         return attackerColor;
@@ -225,11 +192,7 @@ public class ChessMovesCalculator {
             return false;
         }
         //Check if occupying piece is enemy piece
-        if(isEnemyPosition(board, position, attackerColor)) {
-            return true;
-        }
-        //Position is occupied by a friendly piece.
-        return false;
+        return isEnemyPosition(board, position, attackerColor);
     }
 
 
@@ -253,68 +216,193 @@ public class ChessMovesCalculator {
      * @return Is the provided chess square empty.
      */
     public static boolean isSquareOpen(ChessBoard board, ChessPosition position) {
-        if(board.getPiece(position) == null) {
-            return true;
-        }
-        return false;
+        return (board.occupancy() & (1L << ChessBoard.square(position))) == 0;
     }
 
     /**
      * @return Is the provided chess square occupied by an enemy piece.
      */
     public static boolean isEnemyPosition(ChessBoard board, ChessPosition position, TeamColor attackerColor) {
-        if(board.getPiece(position).getTeamColor() == attackerColor) {
-            return false;
-        }
-        return true;
+        long enemies = board.colorOccupancy(1 - attackerColor.ordinal());
+        return (enemies & (1L << ChessBoard.square(position))) != 0;
+    }
+
+    /**
+     * @return The color of the piece occupying the provided (non-empty) square.
+     */
+    private static TeamColor colorAt(ChessBoard board, ChessPosition position) {
+        return TeamColor.values()[ChessBoard.colorOf(board.pieceAt(ChessBoard.square(position)))];
     }
 
     /**
      * @return Valid chess positions along a line based on a given modifier (both straight and diagonal).
      * <p>
-     * Used by moveBishop() and moveKnight().
+     * Used by moveBishop() and moveRook().
      */
     public static ArrayList<ChessMove> validMovesLine(ChessBoard board, ChessPosition currentPosition, int[]modifier) {
-        TeamColor pieceColor = board.getPiece(currentPosition).getTeamColor();
-        ArrayList<ChessMove> possibleMoves = new ArrayList<ChessMove>();
-
-        TeamColor positionValid;
-        int nextRow = currentPosition.getRow();
-        int nextCol = currentPosition.getColumn();
-        do {
-            nextRow += modifier[0];
-            nextCol += modifier[1];
-            ChessPosition nextPosition = new ChessPosition(nextRow, nextCol);
-
-            positionValid = isSquareValid(board, nextPosition, pieceColor);
-            if(positionValid != pieceColor) {
-                possibleMoves.add(new ChessMove(currentPosition, nextPosition, null));
-            }
-        }while(positionValid == null);
-
-        return possibleMoves;
+        int square = ChessBoard.square(currentPosition);
+        long attacks = MagicBitboards.slidingAttacks(square, board.occupancy(), new int[][]{modifier});
+        return validMovesTable(board, currentPosition, attacks);
     }
 
     /**
      * @return Valid chess positions after given a list of locations to check.
-     * <p>
-     * Used by moveKing() and moveKinght()
      */
     public static ArrayList<ChessMove> validMovesSpecificPoints(ChessBoard board, ChessPosition currentPosition, int[][] relativePositions) {
-        ArrayList<ChessMove> allPossibleMoves = new ArrayList<ChessMove>();
-        TeamColor pieceColor = board.getPiece(currentPosition).getTeamColor();
-        int currentRow = currentPosition.getRow();
-        int currentColumn = currentPosition.getColumn();
-
-        for(int i = 0; i < relativePositions.length; i++) {
-            int nextRow = currentRow + relativePositions[i][0];
-            int nextCol = currentColumn + relativePositions[i][1];
-            ChessPosition nextPosition = new ChessPosition(nextRow,nextCol);
-            TeamColor nextStatus = isSquareValid(board,nextPosition,pieceColor);
-            if(nextStatus != pieceColor) {
-                allPossibleMoves.add(new ChessMove(currentPosition, nextPosition, null));
-            }
+        int square = ChessBoard.square(currentPosition);
+        int[] moves = new int[relativePositions.length];
+        int count = offsetMoves(board, square, ChessBoard.colorOf(board.pieceAt(square)), relativePositions, moves, 0);
+        return toChessMoves(moves, count);
+    }
+
+    private static ArrayList<ChessMove> validMovesTable(ChessBoard board, ChessPosition currentPosition, long attacks) {
+        int square = ChessBoard.square(currentPosition);
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = tableMoves(board, square, ChessBoard.colorOf(board.pieceAt(square)), attacks, moves, 0);
+        return toChessMoves(moves, count);
+    }
+
+    /**
+     * @return Whether any piece of the attacking team attacks the given square.
+     * <p>
+     * Used for check detection, so it only reads precomputed attack tables
+     * (including the magic sliding tables) and occupancy masks.
+     */
+    public static boolean isSquareAttacked(ChessBoard board, int square, TeamColor attackerColor) {
+        return isSquareAttacked(board, square, attackerColor.ordinal());
+    }
+
+    static boolean isSquareAttacked(ChessBoard board, int square, int attacker) {
+        long[] pieces = board.pieceBitboards;
+        int base = attacker * 6;
+        //A pawn of the defending color on this square would attack exactly the attacking pawns.
+        if((AttackTables.PAWN_ATTACKS[1 - attacker][square] & pieces[base + PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if((AttackTables.KNIGHT_ATTACKS[square] & pieces[base + PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if((AttackTables.KING_ATTACKS[square] & pieces[base + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieces[base + PieceType.QUEEN.ordinal()];
+        long diagonal = pieces[base + PieceType.BISHOP.ordinal()] | queens;
+        long straight = pieces[base + PieceType.ROOK.ordinal()] | queens;
+        long occupied = board.occupancy();
+        return (diagonal != 0 && (MagicBitboards.bishopAttacks(square, occupied) & diagonal) != 0)
+                || (straight != 0 && (MagicBitboards.rookAttacks(square, occupied) & straight) != 0);
+    }
+
+    /**
+     * @return Bitboard of the attacking team's pieces that attack the given square
+     * when the board's occupancy is replaced by the given one.
+     */
+    static long attackersTo(ChessBoard board, int square, int attacker, long occupied) {
+        long[] pieces = board.pieceBitboards;
+        int base = attacker * 6;
+        long queens = pieces[base + PieceType.QUEEN.ordinal()];
+        return (AttackTables.PAWN_ATTACKS[1 - attacker][square] & pieces[base + PieceType.PAWN.ordinal()])
+                | (AttackTables.KNIGHT_ATTACKS[square] & pieces[base + PieceType.KNIGHT.ordinal()])
+                | (AttackTables.KING_ATTACKS[square] & pieces[base + PieceType.KING.ordinal()])
+                | (MagicBitboards.bishopAttacks(square, occupied) & (pieces[base + PieceType.BISHOP.ordinal()] | queens))
+                | (MagicBitboards.rookAttacks(square, occupied) & (pieces[base + PieceType.ROOK.ordinal()] | queens));
+    }
+
+    private static ArrayList<ChessMove> toChessMoves(int[] moves, int count) {
+        ArrayList<ChessMove> allPossibleMoves = new ArrayList<ChessMove>(count);
+        for(int i = 0; i < count; i++) {
+            allPossibleMoves.add(PackedMove.toChessMove(moves[i]));
         }
         return allPossibleMoves;
     }
+
+    /**
+     * Writes a move to every square of a precomputed attack set that is not
+     * occupied by a friendly piece.
+     */
+    private static int tableMoves(ChessBoard board, int square, int color, long attacks, int[] moves, int count) {
+        long enemy = board.colorOccupancy(1 - color);
+        long targets = attacks & ~board.colorOccupancy(color);
+        while(targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int flags = (enemy & (1L << target)) != 0 ? PackedMove.FLAG_CAPTURE : 0;
+            moves[count++] = PackedMove.encode(square, target, 0, flags);
+            targets &= targets - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the moves of a piece that jumps to a fixed set of relative squares.
+     */
+    private static int offsetMoves(ChessBoard board, int square, int color, int[][] offsets, int[] moves, int count) {
+        long own = board.colorOccupancy(color);
+        long enemy = board.colorOccupancy(1 - color);
+        int row = square >>> 3;
+        int col = square & 7;
+        for(int[] offset : offsets) {
+            int nextRow = row + offset[0];
+            int nextCol = col + offset[1];
+            if(nextRow < 0 || nextRow > 7 || nextCol < 0 || nextCol > 7) {
+                continue;
+            }
+            int target = nextRow * 8 + nextCol;
+            long bit = 1L << target;
+            if((own & bit) == 0) {
+                moves[count++] = PackedMove.encode(square, target, 0, (enemy & bit) != 0 ? PackedMove.FLAG_CAPTURE : 0);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the pushes, double pushes, captures and promotions of a pawn.
+     */
+    private static int pawnMoves(ChessBoard board, int square, int color, int[] moves, int count) {
+        long occupied = board.occupancy();
+        long enemy = board.colorOccupancy(1 - color);
+        int row = square >>> 3;
+
+        //Defining direction of movement based on color.
+        int direction = color == 0 ? 1 : -1;
+        int nextRow = row + direction;
+        if(nextRow < 0 || nextRow > 7) {
+            return count;
+        }
+        boolean promotes = (nextRow == 0) || (nextRow == 7);
+
+        //Move Forward 1 space
+        int target = square + 8 * direction;
+        if((occupied & (1L << target)) == 0) {
+            count = addPawnMove(square, target, promotes, 0, moves, count);
+
+            //Move Forward 2 spaces
+            int startRow = color == 0 ? 1 : 6;
+            if(row == startRow) {
+                int doubleTarget = target + 8 * direction;
+                if((occupied & (1L << doubleTarget)) == 0) {
+                    moves[count++] = PackedMove.encode(square, doubleTarget, 0, PackedMove.FLAG_DOUBLE_PUSH);
+                }
+            }
+        }
+
+        //Move diagonals
+        long captures = AttackTables.PAWN_ATTACKS[color][square] & enemy;
+        while(captures != 0) {
+            count = addPawnMove(square, Long.numberOfTrailingZeros(captures), promotes, PackedMove.FLAG_CAPTURE, moves, count);
+            captures &= captures - 1;
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int from, int to, boolean promotes, int flags, int[] moves, int count) {
+        if(!promotes) {
+            moves[count++] = PackedMove.encode(from, to, 0, flags);
+            return count;
+        }
+        for(int promotion : PROMOTION_CODES) {
+            moves[count++] = PackedMove.encode(from, to, promotion, flags);
+        }
+        return count;
+    }
 }
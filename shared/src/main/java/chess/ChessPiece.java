@@ -10,6 +10,16 @@ import java.util.Collection;
  */
 public class ChessPiece {
 
+    //One shared instance per color and type, indexed by color ordinal * 6 + type ordinal
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+    static {
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for(PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType type;
 
@@ -18,6 +28,21 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a piece. Pieces are immutable, so callers
+     * should prefer this to the constructor.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return The shared piece for an index from {@link ChessBoard#pieceIndex}
+     */
+    static ChessPiece ofIndex(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -8,6 +8,14 @@ package chess;
  */
 public class ChessPosition {
 
+    //One shared instance per on-board square, indexed by (row - 1) * 8 + (col - 1)
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+    static {
+        for(int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -16,6 +24,27 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a position. Positions are immutable, so
+     * callers should prefer this to the constructor.
+     *
+     * @return The shared position for an on-board square, or a new position
+     * if the row or column is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if(row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return The shared position for a square index (0 = a1, 63 = h8)
+     */
+    static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -33,7 +62,7 @@ public class ChessPosition {
 
     @Override
     public String toString() {
-        return String.format("[%d,%d]", row, col);
+        return "[" + row + "," + col + "]";
     }
 
     public boolean equals(Object obj) {
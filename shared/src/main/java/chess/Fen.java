@@ -0,0 +1,286 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement,
+ * side to move, castling rights, en passant square, halfmove clock and
+ * fullmove number, separated by spaces.
+ * <p>
+ * The parser walks the text once by index and puts pieces straight on the
+ * board, so it never splits the text or builds strings from it. The two move
+ * counters may be left off, as EPD files do; they then default to 0 and 1.
+ */
+final class Fen {
+    //Indexed by piece index: white KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN, then black
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp";
+    private static final String CASTLING_CHARS = "KQkq";
+    private static final int[] CASTLING_RIGHTS = {ChessGame.WHITE_KINGSIDE, ChessGame.WHITE_QUEENSIDE,
+            ChessGame.BLACK_KINGSIDE, ChessGame.BLACK_QUEENSIDE};
+    private static final int MAX_COUNTER = 1_000_000;
+
+    private final CharSequence text;
+    private final int end;
+    private int index;
+
+    private Fen(CharSequence text) {
+        this.text = text;
+        int last = text.length();
+        while(last > 0 && isSpace(text.charAt(last - 1))) {
+            last--;
+        }
+        this.end = last;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    static ChessGame parse(CharSequence text) {
+        ChessGame game = new ChessGame(new ChessBoard(), ChessGame.TeamColor.WHITE, 0, ChessGame.NO_SQUARE, 0, 1);
+        parse(text, game);
+        return game;
+    }
+
+    /**
+     * Parses into an existing game, reusing its board and buffers. The game's
+     * position is undefined if the text is not valid.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    static void parse(CharSequence text, ChessGame game) {
+        new Fen(text).parse(game);
+    }
+
+    /**
+     * Parses the ASCII bytes between the buffer's position and limit, without
+     * moving its position.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid FEN position
+     */
+    static ChessGame parse(ByteBuffer buffer) {
+        return parse(new AsciiSequence(buffer, buffer.position(), buffer.remaining()));
+    }
+
+    static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(90);
+        ChessBoard board = game.getBoard();
+        for(int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for(int col = 0; col < 8; col++) {
+                int piece = board.pieceAt(row * 8 + col);
+                if(piece == ChessBoard.NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_CHARS.charAt(piece));
+            }
+            if(empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if(row > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = game.castlingRights();
+        if(rights == 0) {
+            fen.append('-');
+        }
+        for(int i = 0; i < CASTLING_RIGHTS.length; i++) {
+            if((rights & CASTLING_RIGHTS[i]) != 0) {
+                fen.append(CASTLING_CHARS.charAt(i));
+            }
+        }
+
+        int enPassant = game.enPassantSquare();
+        fen.append(' ');
+        if(enPassant == ChessGame.NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        return fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber()).toString();
+    }
+
+    private void parse(ChessGame game) {
+        while(index < end && isSpace(text.charAt(index))) {
+            index++;
+        }
+        ChessBoard board = game.getBoard();
+        board.clear();
+        parsePlacement(board);
+        separator();
+        ChessGame.TeamColor turn = switch(next()) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw error("side to move must be w or b");
+        };
+        separator();
+        int rights = parseCastling();
+        separator();
+        int enPassant = parseEnPassant(board, turn);
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if(index < end) {
+            separator();
+            halfmoveClock = parseCounter();
+            separator();
+            fullmoveNumber = parseCounter();
+            if(fullmoveNumber == 0) {
+                throw error("fullmove number starts at 1");
+            }
+        }
+        if(index < end) {
+            throw error("unexpected text after the fullmove number");
+        }
+        //Rights for a king or rook that is not on its home square could never be used.
+        rights &= ChessGame.inferCastlingRights(board);
+        game.setState(turn, rights, enPassant, halfmoveClock, fullmoveNumber);
+    }
+
+    private void parsePlacement(ChessBoard board) {
+        int row = 7;
+        int col = 0;
+        while(index < end && !isSpace(text.charAt(index))) {
+            char c = text.charAt(index);
+            if(c == '/') {
+                if(col != 8 || row == 0) {
+                    throw error("rank " + (row + 1) + " does not have 8 squares");
+                }
+                row--;
+                col = 0;
+            } else if(c >= '1' && c <= '8') {
+                col += c - '0';
+                if(col > 8) {
+                    throw error("rank " + (row + 1) + " has more than 8 squares");
+                }
+            } else {
+                int piece = PIECE_CHARS.indexOf(c);
+                if(piece < 0) {
+                    throw error("'" + c + "' is not a piece");
+                }
+                if(col == 8) {
+                    throw error("rank " + (row + 1) + " has more than 8 squares");
+                }
+                board.putPiece(row * 8 + col++, piece);
+            }
+            index++;
+        }
+        if(row != 0 || col != 8) {
+            throw error("piece placement does not cover 8 ranks of 8 squares");
+        }
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if(Long.bitCount(board.pieces(color.ordinal(), ChessPiece.PieceType.KING)) != 1) {
+                throw error(color + " must have exactly one king");
+            }
+        }
+    }
+
+    private int parseCastling() {
+        if(index < end && text.charAt(index) == '-') {
+            index++;
+            return 0;
+        }
+        int rights = 0;
+        while(index < end && !isSpace(text.charAt(index))) {
+            int right = CASTLING_CHARS.indexOf(text.charAt(index));
+            if(right < 0) {
+                throw error("castling rights must be - or letters from KQkq");
+            }
+            rights |= CASTLING_RIGHTS[right];
+            index++;
+        }
+        if(rights == 0) {
+            throw error("missing castling rights");
+        }
+        return rights;
+    }
+
+    private int parseEnPassant(ChessBoard board, ChessGame.TeamColor turn) {
+        char file = next();
+        if(file == '-') {
+            return ChessGame.NO_SQUARE;
+        }
+        char rank = next();
+        //The skipped square is behind the pawn of the side that just moved.
+        char expectedRank = turn == ChessGame.TeamColor.WHITE ? '6' : '3';
+        if(file < 'a' || file > 'h' || rank != expectedRank) {
+            throw error("en passant square must be - or a square on rank " + expectedRank);
+        }
+        int square = (rank - '1') * 8 + (file - 'a');
+        if(!ChessGame.isEnPassantSquare(board, turn, square)) {
+            throw error("en passant square " + file + rank + " is not behind a pawn that just moved two squares");
+        }
+        return square;
+    }
+
+    private int parseCounter() {
+        int start = index;
+        int value = 0;
+        while(index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+            value = value * 10 + text.charAt(index++) - '0';
+            if(value > MAX_COUNTER) {
+                throw error("move counter is too large");
+            }
+        }
+        if(index == start) {
+            throw error("move counter must be a number");
+        }
+        return value;
+    }
+
+    private char next() {
+        if(index == end) {
+            throw error("unexpected end of text");
+        }
+        return text.charAt(index++);
+    }
+
+    private void separator() {
+        if(index == end || !isSpace(text.charAt(index))) {
+            throw error("expected a space");
+        }
+        while(isSpace(text.charAt(index))) {
+            index++;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException("Invalid FEN at character " + index + ": " + problem);
+    }
+
+    /**
+     * Reads a range of a byte buffer as text, one byte per character, with
+     * absolute gets so the buffer itself is left alone.
+     */
+    private record AsciiSequence(ByteBuffer buffer, int offset, int length) implements CharSequence {
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(length);
+            for(int i = 0; i < length; i++) {
+                text.append(charAt(i));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package chess;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of positions, games and moves, for storage and the
+ * wire.
+ * <p>
+ * A position takes {@value #POSITION_BYTES} bytes: 32 bytes of 4-bit squares,
+ * a1 first and two to a byte with the lower square in the low nibble, each
+ * holding 0 for empty or the piece index + 1; then one byte with black to move
+ * in bit 0 and the castling rights in bits 1 to 4, one byte with the en passant
+ * square + 1 (0 for none), and the halfmove clock and fullmove number as
+ * unsigned big-endian shorts.
+ * <p>
+ * A move takes 16 bits: start square, end square and promotion piece as laid
+ * out by {@link PackedMove}, without the flags, which follow from the position.
+ * A game is the position its move history starts from, an unsigned short move
+ * count and the moves, so decoding it restores the moves that can be taken back.
+ * <p>
+ * Everything reads from and writes to caller-supplied buffers at their current
+ * position, so pooled or direct buffers can be reused without any allocation
+ * beyond the decoded game.
+ */
+public final class GameCodec {
+    public static final int POSITION_BYTES = 38;
+    public static final int MAX_GAME_MOVES = 0xFFFF;
+
+    private static final int SQUARE_BYTES = 32;
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int CASTLING_SHIFT = 1;
+
+    private GameCodec() {
+
+    }
+
+    /**
+     * @return Bytes {@link #encode(ChessGame, ByteBuffer)} writes for the game
+     */
+    public static int encodedSize(ChessGame game) {
+        return POSITION_BYTES + 2 + 2 * game.historyLength();
+    }
+
+    /**
+     * Writes the game's position and the moves that led to it, so that
+     * {@link #decode(ByteBuffer)} gives back a game whose moves can be taken back.
+     *
+     * @return Number of bytes written, as given by {@link #encodedSize(ChessGame)}
+     * @throws BufferOverflowException if the buffer does not have that many bytes left
+     * @throws IllegalArgumentException if the game has more than {@value #MAX_GAME_MOVES} moves
+     */
+    public static int encode(ChessGame game, ByteBuffer out) {
+        int moves = game.historyLength();
+        if(moves > MAX_GAME_MOVES) {
+            throw new IllegalArgumentException("Cannot encode a game of " + moves + " moves");
+        }
+        int size = encodedSize(game);
+        if(out.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        ChessGame start = game;
+        if(moves > 0) {
+            start = new ChessGame(game);
+            for(int i = 0; i < moves; i++) {
+                start.unmakeMove();
+            }
+        }
+        encodePosition(start, out);
+        out.putShort((short) moves);
+        for(int i = 0; i < moves; i++) {
+            out.putShort(encodeMove(game.historyMove(i)));
+        }
+        return size;
+    }
+
+    /**
+     * Reads a game written by {@link #encode(ChessGame, ByteBuffer)} and replays its moves.
+     *
+     * @throws BufferUnderflowException if the buffer ends before the game does
+     * @throws IllegalArgumentException if the bytes are not a valid position or
+     *                                  a move is not legal where it is played
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        ChessGame game = decodePosition(in);
+        int moves = Short.toUnsignedInt(in.getShort());
+        int[] legal = new int[ChessMovesCalculator.MAX_MOVES];
+        for(int i = 0; i < moves; i++) {
+            int move = in.getShort() & PackedMove.MOVE_MASK;
+            int count = game.legalMoves(legal);
+            int played = PackedMove.NONE;
+            for(int j = 0; j < count; j++) {
+                if(PackedMove.sameMove(legal[j], move)) {
+                    played = legal[j];
+                    break;
+                }
+            }
+            if(played == PackedMove.NONE) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " of the encoded game is not legal");
+            }
+            game.makeMove(played);
+        }
+        return game;
+    }
+
+    /**
+     * Writes the game's current position, without its move history.
+     *
+     * @throws BufferOverflowException if the buffer has fewer than {@value #POSITION_BYTES} bytes left
+     */
+    public static void encodePosition(ChessGame game, ByteBuffer out) {
+        if(out.remaining() < POSITION_BYTES) {
+            throw new BufferOverflowException();
+        }
+        byte[] mailbox = game.getBoard().mailbox;
+        for(int square = 0; square < 64; square += 2) {
+            out.put((byte) (mailbox[square] | (mailbox[square + 1] << 4)));
+        }
+        int flags = game.castlingRights() << CASTLING_SHIFT;
+        if(game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        out.put((byte) flags);
+        out.put((byte) (game.enPassantSquare() + 1));
+        out.putShort((short) Math.min(game.getHalfmoveClock(), 0xFFFF));
+        out.putShort((short) Math.min(game.getFullmoveNumber(), 0xFFFF));
+    }
+
+    /**
+     * Reads a position written by {@link #encodePosition(ChessGame, ByteBuffer)}.
+     *
+     * @return A game in that position, with no moves to take back
+     * @throws BufferUnderflowException if the buffer has fewer than {@value #POSITION_BYTES} bytes left
+     * @throws IllegalArgumentException if a square is out of range, a side does not have exactly
+     *                                  one king, or the en passant square is not behind a pawn of
+     *                                  the side that just moved
+     */
+    public static ChessGame decodePosition(ByteBuffer in) {
+        ChessGame game = new ChessGame(new ChessBoard(), ChessGame.TeamColor.WHITE, 0, ChessGame.NO_SQUARE, 0, 1);
+        decodePosition(in, in.position(), game);
+        in.position(in.position() + POSITION_BYTES);
+        return game;
+    }
+
+    /**
+     * Reads the position at an offset into an existing game, reusing its board
+     * and buffers. Only absolute reads are used, so threads can share the buffer.
+     *
+     * @throws BufferUnderflowException if the position runs past the buffer's limit
+     * @throws IllegalArgumentException if a square is out of range, a side does not have exactly
+     *                                  one king, or the en passant square is not behind a pawn of
+     *                                  the side that just moved
+     */
+    static void decodePosition(ByteBuffer in, int offset, ChessGame game) {
+        if(offset < 0 || in.limit() - offset < POSITION_BYTES) {
+            throw new BufferUnderflowException();
+        }
+        ChessBoard board = game.getBoard();
+        board.clear();
+        for(int square = 0; square < 64; square += 2) {
+            int pair = in.get(offset + square / 2);
+            putNibble(board, square, pair & 15);
+            putNibble(board, square + 1, (pair >>> 4) & 15);
+        }
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if(Long.bitCount(board.pieces(color.ordinal(), ChessPiece.PieceType.KING)) != 1) {
+                throw new IllegalArgumentException("Encoded position does not have exactly one " + color + " king");
+            }
+        }
+        int flags = in.get(offset + 32);
+        ChessGame.TeamColor turn = (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int enPassant = Byte.toUnsignedInt(in.get(offset + 33)) - 1;
+        if(enPassant >= 64) {
+            throw new IllegalArgumentException("Encoded en passant square " + enPassant + " is not a square");
+        }
+        if(enPassant != ChessGame.NO_SQUARE && !ChessGame.isEnPassantSquare(board, turn, enPassant)) {
+            throw new IllegalArgumentException("Encoded en passant square " + enPassant
+                    + " is not behind a pawn that just moved two squares");
+        }
+        int halfmoveClock = Short.toUnsignedInt(in.getShort(offset + 34));
+        int fullmoveNumber = Math.max(1, Short.toUnsignedInt(in.getShort(offset + 36)));
+        int castlingRights = ((flags >>> CASTLING_SHIFT) & 15) & ChessGame.inferCastlingRights(board);
+        game.setState(turn, castlingRights, enPassant, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * @return The move in 16 bits
+     */
+    public static short encodeMove(ChessMove move) {
+        return encodeMove(PackedMove.fromChessMove(move));
+    }
+
+    /**
+     * @param move packed move; its flags are dropped
+     * @return The move in 16 bits
+     */
+    public static short encodeMove(int move) {
+        return (short) (move & PackedMove.MOVE_MASK);
+    }
+
+    /**
+     * @return The move encoded by {@link #encodeMove(ChessMove)}
+     */
+    public static ChessMove decodeMove(short move) {
+        return PackedMove.toChessMove(move & PackedMove.MOVE_MASK);
+    }
+
+    private static void putNibble(ChessBoard board, int square, int value) {
+        if(value > ChessBoard.NUM_PIECE_INDEXES) {
+            throw new IllegalArgumentException("Encoded square " + square + " holds " + value + ", which is not a piece");
+        }
+        if(value != 0) {
+            board.putPiece(square, value - 1);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Generates only legal moves, without trying them on the board.
+ * <p>
+ * {@link #setUp(int)} works out once per position which pieces give check and
+ * which friendly pieces are pinned to their king. From then on a move is legal
+ * exactly when it stays on its piece's pin line and, if the king is in check,
+ * captures the checker or blocks the check. King moves are tested against the
+ * enemy attacks with the king lifted off the board, and en passant, the one
+ * move that can uncover a check along a rank, is tested against the occupancy
+ * it leaves behind.
+ * <p>
+ * An instance belongs to one ChessGame and reads its current state, so it must
+ * be set up again after every change to the position. When the enemy's
+ * {@link AttackMap} is at hand it can be passed in, and king moves and
+ * castling are then checked against it rather than square by square.
+ */
+final class LegalMoveGenerator {
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final ChessGame game;
+    private final int[] pieceBuffer = new int[ChessMovesCalculator.MAX_PIECE_MOVES];
+
+    private ChessBoard board;
+    private int color;
+    private int kingSquare;
+    private long checkers;
+    //Squares a non-king move must land on: everything, or the checker and the squares blocking it
+    private long checkMask;
+    private long pinned;
+    //Squares the enemy attacks with the king lifted off, when hasAttackMap is set
+    private long enemyAttacks;
+    private boolean hasAttackMap;
+
+    LegalMoveGenerator(ChessGame game) {
+        this.game = game;
+    }
+
+    /**
+     * Finds the checkers and pinned pieces of the given color (0 = white, 1 = black)
+     * in the game's current position.
+     */
+    void setUp(int color) {
+        hasAttackMap = false;
+        findCheckersAndPins(color);
+    }
+
+    /**
+     * @param enemyAttacks the enemy's map from {@link AttackMap#attacks(ChessBoard, int)}
+     * @see #setUp(int)
+     */
+    void setUp(int color, long enemyAttacks) {
+        this.enemyAttacks = enemyAttacks;
+        hasAttackMap = true;
+        findCheckersAndPins(color);
+    }
+
+    private void findCheckersAndPins(int color) {
+        this.board = game.getBoard();
+        this.color = color;
+        int enemy = 1 - color;
+        long king = board.pieceBitboards[color * 6 + KING];
+        checkers = 0;
+        checkMask = ~0L;
+        pinned = 0;
+        if(king == 0) {
+            //Boards without a king cannot be in check, so nothing is ever pinned.
+            kingSquare = ChessGame.NO_SQUARE;
+            return;
+        }
+        kingSquare = Long.numberOfTrailingZeros(king);
+        long occupied = board.occupancy();
+        checkers = ChessMovesCalculator.attackersTo(board, kingSquare, enemy, occupied);
+        if(checkers != 0) {
+            checkMask = checkers | AttackTables.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        }
+
+        long[] pieces = board.pieceBitboards;
+        long queens = pieces[enemy * 6 + PieceType.QUEEN.ordinal()];
+        long snipers = (MagicBitboards.rookAttacks(kingSquare, 0) & (pieces[enemy * 6 + PieceType.ROOK.ordinal()] | queens))
+                | (MagicBitboards.bishopAttacks(kingSquare, 0) & (pieces[enemy * 6 + PieceType.BISHOP.ordinal()] | queens));
+        long own = board.colorOccupancy(color);
+        while(snipers != 0) {
+            long blockers = AttackTables.BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if(Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+    }
+
+    /**
+     * Writes every legal move of the set-up color into the move buffer.
+     *
+     * @return The number of moves in the buffer afterwards
+     */
+    int allMoves(int[] moves, int count) {
+        long pieces = board.colorOccupancy(color);
+        while(pieces != 0) {
+            count = pieceMoves(Long.numberOfTrailingZeros(pieces), moves, count);
+            pieces &= pieces - 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return Whether the set-up color has any legal move. Stops at the first one found.
+     */
+    boolean hasLegalMove() {
+        if(kingSquare != ChessGame.NO_SQUARE && pieceMoves(kingSquare, pieceBuffer, 0) > 0) {
+            return true;
+        }
+        long pieces = board.colorOccupancy(color);
+        while(pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            if(square != kingSquare && pieceMoves(square, pieceBuffer, 0) > 0) {
+                return true;
+            }
+            pieces &= pieces - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the legal moves of the piece on the given square, which must belong
+     * to the set-up color, into the move buffer.
+     *
+     * @return The number of moves in the buffer afterwards
+     */
+    int pieceMoves(int square, int[] moves, int count) {
+        int type = ChessBoard.typeOf(board.pieceAt(square));
+        int first = count;
+        int end = ChessMovesCalculator.pieceMoves(board, square, moves, count);
+
+        if(type == KING) {
+            long occupied = board.occupancy() ^ (1L << square);
+            for(int i = first; i < end; i++) {
+                int to = PackedMove.to(moves[i]);
+                boolean attacked = hasAttackMap ? (enemyAttacks & (1L << to)) != 0
+                        : ChessMovesCalculator.attackersTo(board, to, 1 - color, occupied) != 0;
+                if(!attacked) {
+                    moves[count++] = moves[i];
+                }
+            }
+            return castlingMoves(square, moves, count);
+        }
+
+        //Only the king may move out of a double check.
+        if(Long.bitCount(checkers) > 1) {
+            return first;
+        }
+        long allowed = checkMask;
+        if((pinned & (1L << square)) != 0) {
+            allowed &= AttackTables.LINE[kingSquare][square];
+        }
+        for(int i = first; i < end; i++) {
+            if((allowed & (1L << PackedMove.to(moves[i]))) != 0) {
+                moves[count++] = moves[i];
+            }
+        }
+        if(type == PAWN) {
+            count = enPassantMove(square, moves, count);
+        }
+        return count;
+    }
+
+    private int castlingMoves(int square, int[] moves, int count) {
+        int homeSquare = color == 0 ? 4 : 60;
+        int kingside = color == 0 ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenside = color == 0 ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+        int rights = game.castlingRights();
+        if(square != homeSquare || (rights & (kingside | queenside)) == 0 || checkers != 0) {
+            return count;
+        }
+        long occupied = board.occupancy();
+        int rook = color * 6 + PieceType.ROOK.ordinal();
+        //Squares between the king and the rook must be empty, and the king may not pass through check.
+        if((rights & kingside) != 0 && board.pieceAt(homeSquare + 3) == rook
+                && (occupied & (3L << (homeSquare + 1))) == 0
+                && !isAttacked(homeSquare + 1) && !isAttacked(homeSquare + 2)) {
+            moves[count++] = PackedMove.encode(homeSquare, homeSquare + 2, 0, PackedMove.FLAG_CASTLE);
+        }
+        if((rights & queenside) != 0 && board.pieceAt(homeSquare - 4) == rook
+                && (occupied & (7L << (homeSquare - 3))) == 0
+                && !isAttacked(homeSquare - 1) && !isAttacked(homeSquare - 2)) {
+            moves[count++] = PackedMove.encode(homeSquare, homeSquare - 2, 0, PackedMove.FLAG_CASTLE);
+        }
+        return count;
+    }
+
+    /**
+     * @return Whether the enemy attacks the square. Lifting the king makes no
+     * difference here, since castling is only tested when the king is not in check.
+     */
+    private boolean isAttacked(int square) {
+        return hasAttackMap ? (enemyAttacks & (1L << square)) != 0
+                : ChessMovesCalculator.isSquareAttacked(board, square, 1 - color);
+    }
+
+    private int enPassantMove(int square, int[] moves, int count) {
+        int target = game.enPassantSquare();
+        if(target == ChessGame.NO_SQUARE || color != game.getTeamTurn().ordinal()
+                || (AttackTables.PAWN_ATTACKS[color][square] & (1L << target)) == 0) {
+            return count;
+        }
+        //The captured pawn sits beside the moving pawn, on the row it started from.
+        long capturedBit = 1L << ((square & ~7) | (target & 7));
+        if(kingSquare != ChessGame.NO_SQUARE) {
+            long occupied = (board.occupancy() ^ (1L << square) ^ capturedBit) | (1L << target);
+            long attackers = ChessMovesCalculator.attackersTo(board, kingSquare, 1 - color, occupied) & ~capturedBit;
+            if(attackers != 0) {
+                return count;
+            }
+        }
+        moves[count++] = PackedMove.encode(square, target, 0, PackedMove.FLAG_CAPTURE | PackedMove.FLAG_EN_PASSANT);
+        return count;
+    }
+}
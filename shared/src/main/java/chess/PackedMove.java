@@ -0,0 +1,94 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Encodes a chess move as a single int so move lists can be kept in
+ * primitive arrays instead of collections of ChessMove objects.
+ * <p>
+ * Layout, from the low bit up: start square (6 bits), end square (6 bits),
+ * promotion piece (3 bits, 0 for none, otherwise the PieceType ordinal + 1),
+ * then the flag bits. Squares are numbered 0 (a1) to 63 (h8).
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    public static final int FLAG_CAPTURE = 1 << 15;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 16;
+    public static final int FLAG_EN_PASSANT = 1 << 17;
+    public static final int FLAG_CASTLE = 1 << 18;
+
+    /**
+     * Covers the start, end and promotion fields, which are what identify a move
+     * to a player. Two packed moves are the same move if they agree under this mask.
+     */
+    public static final int MOVE_MASK = (1 << 15) - 1;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private PackedMove() {
+
+    }
+
+    /**
+     * @param promotion PieceType ordinal + 1, or 0 for no promotion
+     * @return The packed move
+     */
+    public static int encode(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return PieceType ordinal + 1 of the promotion piece, or 0 for no promotion
+     */
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    /**
+     * @return Type of piece to promote a pawn to, or null if no promotion
+     */
+    public static PieceType promotionPiece(int move) {
+        int promotion = promotion(move);
+        if(promotion == 0) {
+            return null;
+        }
+        return PIECE_TYPES[promotion - 1];
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return Whether the two packed moves have the same start, end and promotion
+     */
+    public static boolean sameMove(int first, int second) {
+        return (first & MOVE_MASK) == (second & MOVE_MASK);
+    }
+
+    /**
+     * @return The shared ChessMove instance for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.ofPacked(move);
+    }
+
+    /**
+     * Packs a ChessMove. The result carries no flags, so use
+     * {@link #sameMove(int, int)} to look it up in a generated move list.
+     */
+    public static int fromChessMove(ChessMove move) {
+        PieceType promotion = move.getPromotionPiece();
+        return encode(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                promotion == null ? 0 : promotion.ordinal() + 1, 0);
+    }
+}
@@ -0,0 +1,114 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a {@link ForkJoinPool}.
+ * <p>
+ * Subtrees of at least {@link #SPLIT_DEPTH} plies are split into one task per
+ * legal move, each playing its move on its own copy of the game, and idle
+ * workers steal those tasks. Shallower subtrees are counted in place with
+ * make and unmake, as {@link ChessGame#perft(int)} does. Counts are exactly
+ * those of the sequential perft whatever the thread count.
+ */
+public final class ParallelPerft {
+    //Subtrees at least this deep are split into tasks; shallower ones are too small to be worth forking.
+    static final int SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final PerftCache cache;
+
+    /**
+     * @param pool  pool to run the count on
+     * @param cache subtree counts shared by every task, or null to count every subtree
+     */
+    public ParallelPerft(ForkJoinPool pool, PerftCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth.
+     * The game itself is not changed.
+     *
+     * @see ChessGame#perft(int)
+     */
+    public long perft(ChessGame game, int depth) {
+        if(depth <= 0) {
+            return 1;
+        }
+        return pool.invoke(new PerftTask(new ChessGame(game), depth));
+    }
+
+    //ForkJoinTask is Serializable, but these tasks only live inside one perft call
+    @SuppressWarnings("serial")
+    private final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        private PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if(depth < SPLIT_DEPTH) {
+                return count(depth, new int[depth][ChessMovesCalculator.MAX_MOVES]);
+            }
+            long key = game.zobristKey();
+            if(cache != null) {
+                long cached = cache.get(key, depth);
+                if(cached != PerftCache.MISS) {
+                    return cached;
+                }
+            }
+
+            int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+            int count = game.legalMoves(moves);
+            List<PerftTask> children = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                ChessGame child = new ChessGame(game);
+                child.makeMove(moves[i]);
+                children.add(new PerftTask(child, depth - 1));
+            }
+            long nodes = 0;
+            for(PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            if(cache != null) {
+                cache.put(key, depth, nodes);
+            }
+            return nodes;
+        }
+
+        private long count(int remaining, int[][] buffers) {
+            int[] moves = buffers[remaining - 1];
+            if(remaining == 1) {
+                return game.legalMoves(moves);
+            }
+            long key = 0;
+            if(cache != null) {
+                key = game.zobristKey();
+                long cached = cache.get(key, remaining);
+                if(cached != PerftCache.MISS) {
+                    return cached;
+                }
+            }
+            int count = game.legalMoves(moves);
+            long nodes = 0;
+            for(int i = 0; i < count; i++) {
+                game.makeMove(moves[i]);
+                nodes += count(remaining - 1, buffers);
+                game.unmakeMove();
+            }
+            if(cache != null) {
+                cache.put(key, remaining, nodes);
+            }
+            return nodes;
+        }
+    }
+}
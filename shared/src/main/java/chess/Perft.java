@@ -0,0 +1,93 @@
+package chess;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line perft runner, reporting node counts and generator throughput.
+ * <p>
+ * Usage: {@code Perft [depth] [--fen FEN] [--divide] [--threads N] [--cache MB] [--scaling]}.
+ * Counts the start position, or the FEN position given as one argument, to
+ * the given depth (5 by default); {@code --divide}
+ * also prints the count below each root move. {@code --threads} counts in
+ * parallel on that many threads, optionally sharing a subtree cache of the
+ * given size, and {@code --scaling} repeats the parallel count at 1, 2, 4, ...
+ * threads up to the number of cores and reports the speedup of each.
+ */
+public class Perft {
+    public static void main(String[] args) {
+        int depth = 5;
+        boolean divide = false;
+        int threads = 0;
+        int cacheMegabytes = 0;
+        boolean scaling = false;
+        String fen = null;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--divide" -> divide = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--cache" -> cacheMegabytes = Integer.parseInt(args[++i]);
+                case "--scaling" -> scaling = true;
+                case "--fen" -> fen = args[++i];
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("Move tables initialized in %.1f ms%n", MagicBitboards.initializationNanos() / 1e6);
+        ChessGame game = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        if(scaling) {
+            scaling(game, depth, cacheMegabytes);
+            return;
+        }
+        long start = System.nanoTime();
+        long nodes;
+        if(divide) {
+            nodes = 0;
+            for(Map.Entry<ChessMove, Long> entry : game.perftDivide(depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else if(threads > 0) {
+            nodes = parallelPerft(game, depth, threads, cacheMegabytes);
+        } else {
+            nodes = game.perft(depth);
+        }
+        long elapsed = System.nanoTime() - start;
+        report(depth, nodes, elapsed);
+    }
+
+    static void report(int depth, long nodes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Depth %d: %d nodes in %.3f s (%,.0f nodes/sec)%n",
+                depth, nodes, seconds, nodes / Math.max(seconds, 1e-9));
+    }
+
+    private static long parallelPerft(ChessGame game, int depth, int threads, int cacheMegabytes) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            PerftCache cache = cacheMegabytes > 0 ? new PerftCache(cacheMegabytes) : null;
+            return new ParallelPerft(pool, cache).perft(game, depth);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void scaling(ChessGame game, int depth, int cacheMegabytes) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long baseline = 0;
+        for(int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            long start = System.nanoTime();
+            long nodes = parallelPerft(game, depth, threads, cacheMegabytes);
+            long elapsed = System.nanoTime() - start;
+            if(threads == 1) {
+                baseline = elapsed;
+            }
+            System.out.printf("%2d threads: ", threads);
+            report(depth, nodes, elapsed);
+            System.out.printf("            speedup %.2fx%n", (double) baseline / elapsed);
+            if(threads == cores) {
+                break;
+            }
+        }
+    }
+}
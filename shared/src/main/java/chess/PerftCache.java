@@ -0,0 +1,57 @@
+package chess;
+
+/**
+ * Fixed-size hash table of perft subtree counts, keyed by the position's
+ * Zobrist key and the remaining depth, so a subtree reached through different
+ * move orders is only counted once.
+ * <p>
+ * Like the search's transposition table, entries are two longs: the key XORed
+ * with the count, and the count. Threads share the table without locks, and
+ * an entry torn by two concurrent writes fails the check and reads as a miss.
+ */
+public final class PerftCache {
+    public static final long MISS = -1;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    //Mixed into the key so the same position at different depths uses different entries
+    private static final long DEPTH_SALT = 0x9E3779B97F4A7C15L;
+
+    private final long[] table;
+    private final int indexMask;
+
+    /**
+     * @param megabytes memory to use; rounded down to a power of two number of entries
+     */
+    public PerftCache(int megabytes) {
+        if(megabytes < 1 || megabytes > 16384) {
+            throw new IllegalArgumentException("Perft cache size must be between 1 and 16384 MB");
+        }
+        int entries = Integer.highestOneBit((int) Math.min((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY,
+                Integer.MAX_VALUE / 2));
+        table = new long[entries * 2];
+        indexMask = entries - 1;
+    }
+
+    /**
+     * @return The stored count of the position's subtree at the given depth, or MISS
+     */
+    public long get(long key, int depth) {
+        long depthKey = key ^ (depth * DEPTH_SALT);
+        int index = ((int) depthKey & indexMask) * 2;
+        long count = table[index + 1];
+        if((table[index] ^ count) != depthKey || count == 0) {
+            return MISS;
+        }
+        return count;
+    }
+
+    /**
+     * Stores a subtree count, replacing whatever was in its slot.
+     */
+    public void put(long key, int depth, long count) {
+        long depthKey = key ^ (depth * DEPTH_SALT);
+        int index = ((int) depthKey & indexMask) * 2;
+        table[index] = depthKey ^ count;
+        table[index + 1] = count;
+    }
+}
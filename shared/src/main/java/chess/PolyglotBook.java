@@ -0,0 +1,178 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A Polyglot opening book, read through a read-only memory mapping.
+ * <p>
+ * A book is a sorted array of 16-byte big-endian entries: position key,
+ * move, weight and a learning field nobody uses. Opening a book only maps the
+ * file, so even a book of hundreds of MB is ready at once, and the operating
+ * system shares its pages between every process that maps it. A lookup is a
+ * binary search over the mapping that touches about log2(entries) pages.
+ * <p>
+ * Book moves are matched against the legal moves of the game they are looked
+ * up for, so a key collision or a corrupt entry can never produce an illegal move.
+ */
+public final class PolyglotBook {
+    private static final int ENTRY_BYTES = 16;
+
+    private final ByteBuffer entries;
+    private final int size;
+    private final PolyglotKeys keys;
+
+    /**
+     * A book move and how often it should be played relative to the other
+     * moves of its position.
+     */
+    public record BookMove(ChessMove move, int weight) {
+    }
+
+    private PolyglotBook(ByteBuffer entries, PolyglotKeys keys) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps a book that uses the standard Polyglot keys.
+     *
+     * @see #open(Path, PolyglotKeys)
+     */
+    public static PolyglotBook open(Path path) throws IOException {
+        return open(path, PolyglotKeys.standard());
+    }
+
+    /**
+     * Maps a book file read-only. The file stays mapped after this returns, and
+     * is unmapped once the book is garbage collected.
+     *
+     * @param keys random numbers the book's position keys were built from
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static PolyglotBook open(Path path, PolyglotKeys keys) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if(length % ENTRY_BYTES != 0) {
+                throw new IOException(path + " is not a Polyglot book: " + length + " bytes is not a multiple of 16");
+            }
+            if(length > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than the 2 GB a single mapping can hold");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return new PolyglotBook(buffer, keys);
+        }
+    }
+
+    /**
+     * @return Number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The legal book moves for the game's position, highest weight first;
+     * empty if the position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        long key = keys.key(game);
+        List<BookMove> found = new ArrayList<>();
+        int[] legal = new int[ChessMovesCalculator.MAX_MOVES];
+        int legalCount = -1;
+        for(int index = firstEntry(key); index < size && entries.getLong(index * ENTRY_BYTES) == key; index++) {
+            int offset = index * ENTRY_BYTES;
+            int weight = Short.toUnsignedInt(entries.getShort(offset + 8));
+            int move = decode(game.getBoard(), Short.toUnsignedInt(entries.getShort(offset + 10)));
+            if(legalCount < 0) {
+                legalCount = game.legalMoves(legal);
+            }
+            for(int i = 0; i < legalCount; i++) {
+                if(PackedMove.sameMove(legal[i], move)) {
+                    found.add(new BookMove(PackedMove.toChessMove(legal[i]), weight));
+                    break;
+                }
+            }
+        }
+        found.sort((first, second) -> Integer.compare(second.weight(), first.weight()));
+        return found;
+    }
+
+    /**
+     * Picks a book move at random, each in proportion to its weight.
+     *
+     * @return The chosen move, or null if the position is not in the book
+     */
+    public ChessMove pickMove(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = moves(game);
+        if(moves.isEmpty()) {
+            return null;
+        }
+        long totalWeight = 0;
+        for(BookMove move : moves) {
+            totalWeight += move.weight();
+        }
+        if(totalWeight == 0) {
+            return moves.get(random.nextInt(moves.size())).move();
+        }
+        long pick = random.nextLong(totalWeight);
+        for(BookMove move : moves) {
+            pick -= move.weight();
+            if(pick < 0) {
+                return move.move();
+            }
+        }
+        return moves.get(moves.size() - 1).move();
+    }
+
+    /**
+     * @return Index of the first entry whose key is not below the given one,
+     * comparing keys as unsigned numbers like the book's sort order does
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(entries.getLong(middle * ENTRY_BYTES), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Converts a Polyglot move to a packed move without flags. Polyglot writes
+     * castling as the king capturing its own rook, so those are turned into the
+     * king's two-square move.
+     */
+    private static int decode(ChessBoard board, int bookMove) {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int bookPromotion = (bookMove >>> 12) & 7;
+        //Polyglot promotions count knight 1, bishop 2, rook 3, queen 4.
+        int promotion = switch(bookPromotion) {
+            case 1 -> ChessPiece.PieceType.KNIGHT.ordinal() + 1;
+            case 2 -> ChessPiece.PieceType.BISHOP.ordinal() + 1;
+            case 3 -> ChessPiece.PieceType.ROOK.ordinal() + 1;
+            case 4 -> ChessPiece.PieceType.QUEEN.ordinal() + 1;
+            default -> 0;
+        };
+        int piece = board.pieceAt(from);
+        if(piece != ChessBoard.NO_PIECE && ChessBoard.typeOf(piece) == ChessPiece.PieceType.KING.ordinal()
+                && board.pieceAt(to) == ChessBoard.colorOf(piece) * 6 + ChessPiece.PieceType.ROOK.ordinal()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        return PackedMove.encode(from, to, promotion, 0);
+    }
+}
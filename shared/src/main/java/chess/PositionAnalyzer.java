@@ -0,0 +1,230 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Works out check, mate, stalemate and the number of legal moves for many
+ * stored positions at once, on several threads.
+ * <p>
+ * Positions are cut into batches of the configured size and each batch is one
+ * task on the executor. A task loads every position of its batch into the same
+ * ChessGame and move buffer, so nothing is allocated per position apart from
+ * its result. Results come back in input order.
+ * <p>
+ * A position that cannot be read gets a result with an error instead of
+ * failing the whole batch.
+ */
+public final class PositionAnalyzer {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final ExecutorService executor;
+    private final int batchSize;
+    //Batches a streaming analysis may have queued or running before it waits for the oldest
+    private final int maxPendingBatches;
+
+    /**
+     * Status of one position, for the side to move.
+     *
+     * @param legalMoves number of legal moves, 0 for mate and stalemate
+     * @param error      why the position could not be read, or null
+     */
+    public record Analysis(ChessGame.TeamColor turn, boolean inCheck, boolean inCheckmate, boolean inStalemate,
+                           int legalMoves, String error) {
+        public boolean isValid() {
+            return error == null;
+        }
+
+        private static Analysis invalid(String error) {
+            return new Analysis(null, false, false, false, 0, error);
+        }
+    }
+
+    /**
+     * Loads the input at an index into a game, or throws IllegalArgumentException
+     * or BufferUnderflowException if it is not a position.
+     */
+    @FunctionalInterface
+    private interface Loader {
+        void load(int index, ChessGame game);
+    }
+
+    public PositionAnalyzer(ExecutorService executor) {
+        this(executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param executor  runs one task per batch
+     * @param batchSize positions analysed by each task
+     */
+    public PositionAnalyzer(ExecutorService executor, int batchSize) {
+        if(batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxPendingBatches = 4 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return The analysis of each FEN position, in the same order
+     * @throws InterruptedException if interrupted while waiting for the batches
+     */
+    public List<Analysis> analyzeFens(List<? extends CharSequence> fens) throws InterruptedException {
+        List<? extends CharSequence> inputs = randomAccess(fens);
+        return analyze(inputs.size(), (i, game) -> Fen.parse(inputs.get(i), game));
+    }
+
+    /**
+     * Analyses a stream of FEN positions, such as the lines of a file, with only
+     * a bounded number of batches in memory at a time.
+     *
+     * @param sink receives the analysis of each position in input order, on the calling thread
+     * @throws InterruptedException if interrupted while waiting for the batches
+     */
+    public void analyzeFens(Stream<? extends CharSequence> fens, Consumer<Analysis> sink) throws InterruptedException {
+        analyze(fens.iterator(), (CharSequence fen, ChessGame game) -> Fen.parse(fen, game), sink);
+    }
+
+    /**
+     * @param positions one position written by {@link GameCodec#encodePosition} per
+     *                  buffer, between its position and limit; the buffers are not moved
+     * @return The analysis of each position, in the same order
+     * @throws InterruptedException if interrupted while waiting for the batches
+     */
+    public List<Analysis> analyzeBinary(List<ByteBuffer> positions) throws InterruptedException {
+        List<ByteBuffer> inputs = randomAccess(positions);
+        return analyze(inputs.size(), (i, game) -> decode(inputs.get(i), game));
+    }
+
+    /**
+     * @param positions positions written back to back by {@link GameCodec#encodePosition},
+     *                  such as a mapped file; the buffer is not moved
+     * @return The analysis of each position, in the same order
+     * @throws IllegalArgumentException if the bytes are not a whole number of positions
+     * @throws InterruptedException     if interrupted while waiting for the batches
+     */
+    public List<Analysis> analyzeBinary(ByteBuffer positions) throws InterruptedException {
+        if(positions.remaining() % GameCodec.POSITION_BYTES != 0) {
+            throw new IllegalArgumentException(positions.remaining() + " bytes is not a whole number of "
+                    + GameCodec.POSITION_BYTES + "-byte positions");
+        }
+        int start = positions.position();
+        return analyze(positions.remaining() / GameCodec.POSITION_BYTES, (i, game) ->
+                GameCodec.decodePosition(positions, start + i * GameCodec.POSITION_BYTES, game));
+    }
+
+    /**
+     * Analyses a stream of binary positions, one per buffer, with only a bounded
+     * number of batches in memory at a time.
+     *
+     * @param sink receives the analysis of each position in input order, on the calling thread
+     * @throws InterruptedException if interrupted while waiting for the batches
+     * @see #analyzeBinary(List)
+     */
+    public void analyzeBinary(Stream<ByteBuffer> positions, Consumer<Analysis> sink) throws InterruptedException {
+        analyze(positions.iterator(), PositionAnalyzer::decode, sink);
+    }
+
+    //Tasks read inputs by index, which would be slow on a linked list
+    private static <T> List<T> randomAccess(List<T> inputs) {
+        return inputs instanceof RandomAccess ? inputs : new ArrayList<>(inputs);
+    }
+
+    private static void decode(ByteBuffer position, ChessGame game) {
+        GameCodec.decodePosition(position, position.position(), game);
+    }
+
+    private List<Analysis> analyze(int count, Loader loader) throws InterruptedException {
+        List<Future<Analysis[]>> batches = new ArrayList<>();
+        for(int start = 0; start < count; start += batchSize) {
+            batches.add(executor.submit(task(start, Math.min(start + batchSize, count), loader)));
+        }
+        List<Analysis> results = new ArrayList<>(count);
+        for(Future<Analysis[]> batch : batches) {
+            results.addAll(Arrays.asList(await(batch)));
+        }
+        return results;
+    }
+
+    private <T> void analyze(Iterator<? extends T> inputs, BiConsumer<T, ChessGame> loader, Consumer<Analysis> sink)
+            throws InterruptedException {
+        Queue<Future<Analysis[]>> pending = new ArrayDeque<>();
+        while(inputs.hasNext()) {
+            List<T> batch = new ArrayList<>(batchSize);
+            while(batch.size() < batchSize && inputs.hasNext()) {
+                batch.add(inputs.next());
+            }
+            pending.add(executor.submit(task(0, batch.size(), (i, game) -> loader.accept(batch.get(i), game))));
+            if(pending.size() >= maxPendingBatches) {
+                deliver(await(pending.remove()), sink);
+            }
+        }
+        while(!pending.isEmpty()) {
+            deliver(await(pending.remove()), sink);
+        }
+    }
+
+    /**
+     * @return A task analysing the inputs from {@code start} up to {@code end}
+     */
+    private static Callable<Analysis[]> task(int start, int end, Loader loader) {
+        return () -> {
+            ChessGame game = new ChessGame(new ChessBoard(), ChessGame.TeamColor.WHITE, 0, ChessGame.NO_SQUARE, 0, 1);
+            int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+            Analysis[] results = new Analysis[end - start];
+            for(int i = 0; i < results.length; i++) {
+                try {
+                    loader.load(start + i, game);
+                } catch(IllegalArgumentException | BufferUnderflowException e) {
+                    results[i] = Analysis.invalid(e.getMessage() != null ? e.getMessage() : "Truncated position");
+                    continue;
+                }
+                results[i] = analyze(game, moves);
+            }
+            return results;
+        };
+    }
+
+    private static Analysis analyze(ChessGame game, int[] moves) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int count = game.legalMoves(moves);
+        boolean inCheck = game.isInCheck(turn);
+        return new Analysis(turn, inCheck, inCheck && count == 0, !inCheck && count == 0, count, null);
+    }
+
+    private static void deliver(Analysis[] results, Consumer<Analysis> sink) {
+        for(Analysis result : results) {
+            sink.accept(result);
+        }
+    }
+
+    private static Analysis[] await(Future<Analysis[]> batch) throws InterruptedException {
+        try {
+            return batch.get();
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if(cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package chess;
+
+/**
+ * Standard Algebraic Notation, the move format of PGN files and of most chess
+ * writing: {@code e4}, {@code Nbd7}, {@code exd6}, {@code R1xa3+}, {@code e8=Q#},
+ * {@code O-O-O}.
+ * <p>
+ * A SAN move only names the moving piece type, its end square and as much of
+ * its start square as is needed to tell it apart, so reading one means
+ * matching it against the legal moves of the position it is played in, and
+ * writing one means checking those moves for another piece of the same type
+ * that could go to the same square.
+ * <p>
+ * Both directions work in place: the parser reads text by index, and the
+ * writer appends to a caller's StringBuilder, with the legal moves kept in a
+ * caller's scratch buffer, so converting moves in bulk allocates nothing.
+ */
+public final class San {
+    //Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final String PIECE_LETTERS = "KQBNRP";
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    private San() {
+
+    }
+
+    /**
+     * @return The legal move the SAN text names, as a packed move with flags
+     * @throws IllegalArgumentException if the text is not SAN, or names no legal
+     *                                  move or more than one
+     * @see #parse(ChessGame, CharSequence, int, int, int[])
+     */
+    public static int parse(ChessGame game, CharSequence san) {
+        return parse(game, san, 0, san.length(), new int[ChessMovesCalculator.MAX_MOVES]);
+    }
+
+    /**
+     * Reads the SAN move between {@code start} and {@code end} of the text. Check
+     * and mate signs and the annotations {@code !} and {@code ?} may follow the move.
+     *
+     * @param moves scratch buffer of at least {@link ChessMovesCalculator#MAX_MOVES}
+     *              entries, reused between calls to avoid allocating
+     * @return The legal move the text names, as a packed move with flags
+     * @throws IllegalArgumentException if the text is not SAN, or names no legal
+     *                                  move or more than one
+     */
+    public static int parse(ChessGame game, CharSequence san, int start, int end, int[] moves) {
+        while(end > start && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if(end - start < 2) {
+            throw invalid(san, start, end, "too short");
+        }
+        int count = game.legalMoves(moves);
+
+        char first = san.charAt(start);
+        if(first == 'O' || first == '0') {
+            return castle(san, start, end, moves, count);
+        }
+
+        int type = PAWN;
+        int index = start;
+        if(first >= 'A' && first <= 'Z') {
+            type = PIECE_LETTERS.indexOf(first);
+            if(type < 0 || type == PAWN) {
+                throw invalid(san, start, end, "unknown piece " + first);
+            }
+            index++;
+        }
+
+        int promotion = 0;
+        char last = san.charAt(end - 1);
+        if(type == PAWN && last >= 'A' && last <= 'Z') {
+            int promotionType = PIECE_LETTERS.indexOf(last);
+            if(promotionType <= 0 || promotionType == PAWN) {
+                throw invalid(san, start, end, "cannot promote to " + last);
+            }
+            promotion = promotionType + 1;
+            end--;
+            if(end > index && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+
+        if(end - index < 2) {
+            throw invalid(san, start, end, "missing end square");
+        }
+        int to = square(san.charAt(end - 2), san.charAt(end - 1));
+        if(to < 0) {
+            throw invalid(san, start, end, "missing end square");
+        }
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for(int i = index; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if(c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if(c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if(c != 'x' && c != ':' && c != '-') {
+                throw invalid(san, start, end, "unexpected '" + c + "'");
+            }
+        }
+
+        ChessBoard board = game.getBoard();
+        int found = PackedMove.NONE;
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = PackedMove.from(move);
+            if(PackedMove.to(move) != to || PackedMove.promotion(move) != promotion
+                    || ChessBoard.typeOf(board.pieceAt(from)) != type
+                    || (fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            if(found != PackedMove.NONE) {
+                throw invalid(san, start, end, "ambiguous");
+            }
+            found = move;
+        }
+        if(found == PackedMove.NONE) {
+            throw invalid(san, start, end, "not a legal move");
+        }
+        return found;
+    }
+
+    /**
+     * @return The SAN of a legal move
+     * @throws IllegalArgumentException if the move is not legal in the game
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        return format(game, PackedMove.fromChessMove(move));
+    }
+
+    /**
+     * @param move packed move, with or without flags
+     * @return The SAN of a legal move
+     * @throws IllegalArgumentException if the move is not legal in the game
+     */
+    public static String format(ChessGame game, int move) {
+        StringBuilder san = new StringBuilder(8);
+        append(game, move, new int[ChessMovesCalculator.MAX_MOVES], san);
+        return san.toString();
+    }
+
+    /**
+     * Appends the SAN of a legal move, with {@code +} for check and {@code #}
+     * for mate. The move is played and taken back on the game to see whether
+     * it gives check, so the game must not be used by another thread meanwhile.
+     *
+     * @param move  packed move, with or without flags
+     * @param moves scratch buffer of at least {@link ChessMovesCalculator#MAX_MOVES} entries
+     * @throws IllegalArgumentException if the move is not legal in the game
+     */
+    public static void append(ChessGame game, int move, int[] moves, StringBuilder out) {
+        int count = game.legalMoves(moves);
+        int legal = PackedMove.NONE;
+        for(int i = 0; i < count; i++) {
+            if(PackedMove.sameMove(moves[i], move)) {
+                legal = moves[i];
+                break;
+            }
+        }
+        if(legal == PackedMove.NONE) {
+            throw new IllegalArgumentException("Move " + PackedMove.toChessMove(move) + " is not legal");
+        }
+
+        int from = PackedMove.from(legal);
+        int to = PackedMove.to(legal);
+        ChessBoard board = game.getBoard();
+        int type = ChessBoard.typeOf(board.pieceAt(from));
+        boolean capture = PackedMove.hasFlag(legal, PackedMove.FLAG_CAPTURE | PackedMove.FLAG_EN_PASSANT);
+        if(PackedMove.hasFlag(legal, PackedMove.FLAG_CASTLE)) {
+            out.append(to < from ? "O-O-O" : "O-O");
+        } else if(type == PAWN) {
+            if(capture) {
+                out.append((char) ('a' + (from & 7))).append('x');
+            }
+            appendSquare(out, to);
+            int promotion = PackedMove.promotion(legal);
+            if(promotion != 0) {
+                out.append('=').append(PIECE_LETTERS.charAt(promotion - 1));
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(type));
+            appendDisambiguation(board, legal, type, moves, count, out);
+            if(capture) {
+                out.append('x');
+            }
+            appendSquare(out, to);
+        }
+
+        game.makeMove(legal);
+        if(game.isInCheck(game.getTeamTurn())) {
+            out.append(game.legalMoves(moves) == 0 ? '#' : '+');
+        }
+        game.unmakeMove();
+    }
+
+    /**
+     * Adds the start file if that tells the move apart from every other move of
+     * a piece of the same type to the same square, otherwise the start rank if
+     * that does, otherwise both.
+     */
+    private static void appendDisambiguation(ChessBoard board, int move, int type, int[] moves, int count,
+                                             StringBuilder out) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for(int i = 0; i < count; i++) {
+            int other = PackedMove.from(moves[i]);
+            if(other == from || PackedMove.to(moves[i]) != to || ChessBoard.typeOf(board.pieceAt(other)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= (other & 7) == (from & 7);
+            sameRank |= (other >>> 3) == (from >>> 3);
+        }
+        if(!ambiguous) {
+            return;
+        }
+        if(!sameFile) {
+            out.append((char) ('a' + (from & 7)));
+        } else if(!sameRank) {
+            out.append((char) ('1' + (from >>> 3)));
+        } else {
+            appendSquare(out, from);
+        }
+    }
+
+    static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+
+    private static int castle(CharSequence san, int start, int end, int[] moves, int count) {
+        int length = end - start;
+        boolean queenside;
+        if(length == 3 && matchesCastle(san, start, 3)) {
+            queenside = false;
+        } else if(length == 5 && matchesCastle(san, start, 5)) {
+            queenside = true;
+        } else {
+            throw invalid(san, start, end, "not castling");
+        }
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            if(PackedMove.hasFlag(move, PackedMove.FLAG_CASTLE) && (PackedMove.to(move) < PackedMove.from(move)) == queenside) {
+                return move;
+            }
+        }
+        throw invalid(san, start, end, "castling is not legal");
+    }
+
+    /**
+     * @return Whether the text is O-O or O-O-O, with either letter O or digit 0
+     */
+    private static boolean matchesCastle(CharSequence san, int start, int length) {
+        char letter = san.charAt(start);
+        for(int i = 0; i < length; i++) {
+            char expected = i % 2 == 0 ? letter : '-';
+            if(san.charAt(start + i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The square index, or -1 if the characters are not a square
+     */
+    static int square(char file, char rank) {
+        if(file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence san, int start, int end, String problem) {
+        return new IllegalArgumentException("Invalid SAN move " + san.subSequence(start, end) + ": " + problem);
+    }
+}
@@ -0,0 +1,105 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Static exchange evaluation: what a move wins or loses in material once every
+ * capture and recapture on its target square has been played out, without
+ * playing any of them.
+ * <p>
+ * Both sides recapture with their least valuable attacker, and either side
+ * may stop when continuing would lose material. Removing an attacker from the
+ * occupancy bitboard uncovers any slider behind it, so batteries are counted.
+ * Pins are ignored, which is the usual trade for speed.
+ */
+final class StaticExchange {
+    //Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] VALUES = {20000, 900, 330, 320, 500, 100};
+    //Longest possible exchange: every piece on the board takes its turn on the square
+    static final int MAX_EXCHANGE = 32;
+
+    //Least valuable first
+    private static final PieceType[] ATTACKER_ORDER = {PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP,
+            PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+
+    private StaticExchange() {
+
+    }
+
+    /**
+     * @param move packed move of the piece on its start square
+     * @param gain scratch of at least {@link #MAX_EXCHANGE} entries, reused between calls
+     * @return Material the moving side gains in centipawns; negative if the move
+     * loses material, 0 for an even trade or a safe quiet move
+     */
+    static int evaluate(ChessBoard board, int move, int[] gain) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int mover = board.pieceAt(from);
+        long occupied = board.occupancy() & ~(1L << from);
+
+        int captured = board.pieceAt(to);
+        if(PackedMove.hasFlag(move, PackedMove.FLAG_EN_PASSANT)) {
+            gain[0] = VALUES[PieceType.PAWN.ordinal()];
+            occupied &= ~(1L << ((from & ~7) | (to & 7)));
+        } else {
+            gain[0] = captured == ChessBoard.NO_PIECE ? 0 : VALUES[ChessBoard.typeOf(captured)];
+        }
+        int pieceOnSquare = VALUES[ChessBoard.typeOf(mover)];
+        int promotion = PackedMove.promotion(move);
+        if(promotion != 0) {
+            pieceOnSquare = VALUES[promotion - 1];
+            gain[0] += pieceOnSquare - VALUES[PieceType.PAWN.ordinal()];
+        }
+
+        long[] pieces = board.pieceBitboards;
+        long diagonal = pieces[PieceType.BISHOP.ordinal()] | pieces[PieceType.QUEEN.ordinal()]
+                | pieces[6 + PieceType.BISHOP.ordinal()] | pieces[6 + PieceType.QUEEN.ordinal()];
+        long straight = pieces[PieceType.ROOK.ordinal()] | pieces[PieceType.QUEEN.ordinal()]
+                | pieces[6 + PieceType.ROOK.ordinal()] | pieces[6 + PieceType.QUEEN.ordinal()];
+        long attackers = (ChessMovesCalculator.attackersTo(board, to, 0, occupied)
+                | ChessMovesCalculator.attackersTo(board, to, 1, occupied)) & occupied;
+
+        int side = 1 - ChessBoard.colorOf(mover);
+        int depth = 0;
+        while(true) {
+            long ownAttackers = attackers & board.colorBitboards[side];
+            if(ownAttackers == 0) {
+                break;
+            }
+            long attackerBit = 0;
+            PieceType attackerType = null;
+            for(PieceType type : ATTACKER_ORDER) {
+                long candidates = ownAttackers & pieces[side * 6 + type.ordinal()];
+                if(candidates != 0) {
+                    attackerBit = candidates & -candidates;
+                    attackerType = type;
+                    break;
+                }
+            }
+            //A king may only recapture if nothing defends the square any more.
+            if(attackerType == PieceType.KING && (attackers & board.colorBitboards[1 - side] & ~attackerBit) != 0) {
+                break;
+            }
+
+            depth++;
+            //Speculatively capture whatever is on the square; undone below if the side would rather stop.
+            gain[depth] = pieceOnSquare - gain[depth - 1];
+            if(Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            pieceOnSquare = VALUES[attackerType.ordinal()];
+
+            occupied &= ~attackerBit;
+            attackers |= (MagicBitboards.bishopAttacks(to, occupied) & diagonal)
+                    | (MagicBitboards.rookAttacks(to, occupied) & straight);
+            attackers &= occupied;
+            side = 1 - side;
+        }
+        while(depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+}
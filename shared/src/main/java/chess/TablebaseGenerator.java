@@ -0,0 +1,209 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Builds the table files {@link Tablebases} reads, by retrograde analysis of
+ * every position with a given material.
+ * <p>
+ * Generation runs in passes. Pass 0 finds the checkmates and stalemates. Pass
+ * k then marks a position won in k plies if some move reaches a position
+ * lost in fewer, and lost in k plies if every move reaches a position won in
+ * fewer. A capture leaves the table, so its outcome comes from the table of the
+ * smaller material and counts as reached at once. Positions still open once a
+ * pass finds nothing new are draws.
+ * <p>
+ * Only pawnless material is supported, and tables of up to four pieces: a
+ * four piece table holds 32 MB. Generate smaller tables first, since the
+ * captures of a table are looked up in them.
+ * <p>
+ * Usage: {@code TablebaseGenerator directory signature...}, for example
+ * {@code TablebaseGenerator tables KQvK KRvK}.
+ */
+public final class TablebaseGenerator {
+    public static final int MAX_PIECES = 4;
+
+    //Marks a position whose outcome is not known yet; never written to a file.
+    private static final byte UNKNOWN = Byte.MAX_VALUE;
+
+    private final int[] slots;
+    private final Tablebases subtables;
+    private final byte[] values;
+    private final ChessGame game = new ChessGame();
+    private final int[] squares;
+    private final int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+
+    private TablebaseGenerator(String signature, Tablebases subtables) {
+        this.slots = Tablebases.slots(signature);
+        if(slots.length > MAX_PIECES) {
+            throw new IllegalArgumentException("Tables of more than " + MAX_PIECES + " pieces are not supported: " + signature);
+        }
+        if(slots[0] != ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)
+                || signature.indexOf('K', 1) != signature.indexOf('v') + 1 || signature.indexOf('P') >= 0) {
+            throw new IllegalArgumentException("Not a pawnless signature with one king each: " + signature);
+        }
+        this.subtables = subtables;
+        this.values = new byte[(int) Tablebases.positions(slots)];
+        this.squares = new int[slots.length];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator directory signature...");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        for(int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            Path file = generate(args[i], directory, new Tablebases(directory));
+            System.out.printf("%s: %,d bytes in %.1f s%n", file, Files.size(file), (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * Generates the table for one material and writes it into the directory.
+     *
+     * @param signature material like {@code KRvK}, white's pieces then black's, strongest first
+     * @param subtables tables for every material a capture can lead to; two bare
+     *                  kings need no table
+     * @return The written file
+     * @throws IllegalStateException if a capture leads to a material with no table
+     */
+    public static Path generate(String signature, Path directory, Tablebases subtables) throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(signature, subtables);
+        generator.solve();
+        Path file = directory.resolve(signature + Tablebases.EXTENSION);
+        ByteBuffer header = ByteBuffer.allocate(Tablebases.HEADER_BYTES);
+        header.putInt(Tablebases.MAGIC).put((byte) generator.slots.length).clear();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(generator.values);
+            while(body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        return file;
+    }
+
+    private void solve() {
+        for(int index = 0; index < values.length; index++) {
+            values[index] = setUp(index) ? terminal() : Tablebases.INVALID;
+        }
+        boolean changed = true;
+        for(int pass = 1; changed; pass++) {
+            if(pass > Tablebases.MAX_DTZ) {
+                throw new IllegalStateException("Distance to zeroing beyond " + Tablebases.MAX_DTZ + " plies");
+            }
+            changed = false;
+            for(int index = 0; index < values.length; index++) {
+                if(values[index] == UNKNOWN) {
+                    setUp(index);
+                    byte value = resolve(pass);
+                    if(value != UNKNOWN) {
+                        values[index] = value;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        for(int index = 0; index < values.length; index++) {
+            if(values[index] == UNKNOWN) {
+                values[index] = Tablebases.DRAW;
+            }
+        }
+    }
+
+    /**
+     * Puts the position with the given index on the board.
+     *
+     * @return Whether the position can occur: no two pieces on a square, pieces
+     * of a kind in increasing square order, and the side that just moved not in check
+     */
+    private boolean setUp(int index) {
+        int turn = index >>> (6 * slots.length);
+        long occupied = 0;
+        for(int slot = slots.length - 1, rest = index; slot >= 0; slot--, rest >>>= 6) {
+            squares[slot] = rest & 63;
+        }
+        for(int slot = 0; slot < slots.length; slot++) {
+            long bit = 1L << squares[slot];
+            if((occupied & bit) != 0 || (slot > 0 && slots[slot] == slots[slot - 1] && squares[slot] < squares[slot - 1])) {
+                return false;
+            }
+            occupied |= bit;
+        }
+        ChessBoard board = game.getBoard();
+        board.clear();
+        for(int slot = 0; slot < slots.length; slot++) {
+            board.putPiece(squares[slot], slots[slot]);
+        }
+        game.setState(ChessGame.TeamColor.values()[turn], 0, ChessGame.NO_SQUARE, 0, 1);
+        return !ChessGame.isKingAttacked(board, 1 - turn);
+    }
+
+    /**
+     * @return LOSS in 0 for checkmate, DRAW for stalemate, otherwise UNKNOWN
+     */
+    private byte terminal() {
+        if(game.legalMoves(moves) > 0) {
+            return UNKNOWN;
+        }
+        boolean inCheck = ChessGame.isKingAttacked(game.getBoard(), game.getTeamTurn().ordinal());
+        return inCheck ? Tablebases.encode(TablebaseResult.Wdl.LOSS, 0) : Tablebases.DRAW;
+    }
+
+    /**
+     * @return The outcome pass {@code pass} can prove for the position on the board, or UNKNOWN
+     */
+    private byte resolve(int pass) {
+        int count = game.legalMoves(moves);
+        boolean allLost = true;
+        int longestLoss = 0;
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            TablebaseResult child = child(move);
+            //Outcomes decided in this pass are too long to count yet.
+            if(child == null || child.dtz() >= pass) {
+                allLost = false;
+                continue;
+            }
+            if(child.wdl() == TablebaseResult.Wdl.LOSS) {
+                return Tablebases.encode(TablebaseResult.Wdl.WIN, pass);
+            }
+            if(child.wdl() == TablebaseResult.Wdl.WIN) {
+                longestLoss = Math.max(longestLoss, child.dtz() + 1);
+            } else {
+                allLost = false;
+            }
+        }
+        return allLost ? Tablebases.encode(TablebaseResult.Wdl.LOSS, longestLoss) : UNKNOWN;
+    }
+
+    /**
+     * @return The outcome for the opponent after the move, with a capture counting
+     * as distance 0, or null if it is not known yet
+     */
+    private TablebaseResult child(int move) {
+        if(PackedMove.hasFlag(move, PackedMove.FLAG_CAPTURE)) {
+            game.makeMove(move);
+            TablebaseResult result = subtables.probe(game);
+            if(result == null) {
+                throw new IllegalStateException("No table for " + Tablebases.signature(game.getBoard(), false)
+                        + ", which a capture leads to");
+            }
+            game.unmakeMove();
+            return new TablebaseResult(result.wdl(), 0);
+        }
+        game.makeMove(move);
+        byte value = values[Tablebases.index(game.getBoard(), game.getTeamTurn().ordinal(), slots, false)];
+        game.unmakeMove();
+        return value == UNKNOWN ? null : Tablebases.decode(value);
+    }
+}
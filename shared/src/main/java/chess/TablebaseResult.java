@@ -0,0 +1,30 @@
+package chess;
+
+/**
+ * The outcome of a position under perfect play, from a tablebase.
+ * <p>
+ * The fifty-move rule is not modelled: the halfmove clock is ignored, so a
+ * WIN whose dtz runs past the moves the clock has left can still be drawn.
+ *
+ * @param wdl win, draw or loss for the side to move
+ * @param dtz plies until the next capture, pawn move or checkmate with best play,
+ *            0 for a position that is already checkmate or a draw
+ */
+public record TablebaseResult(Wdl wdl, int dtz) {
+    public enum Wdl {
+        LOSS,
+        DRAW,
+        WIN;
+
+        /**
+         * @return The same outcome seen from the other side
+         */
+        public Wdl opposite() {
+            return switch(this) {
+                case LOSS -> WIN;
+                case DRAW -> DRAW;
+                case WIN -> LOSS;
+            };
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Endgame tablebase probing over a directory of memory-mapped table files.
+ * <p>
+ * Each file covers one material balance, named by its signature such as
+ * {@code KQvK.ctb}: white's pieces, then black's, strongest first. Positions
+ * with the colors swapped are probed through the same file with the board
+ * mirrored. A file holds a 16 byte header and then one byte per position,
+ * indexed by side to move and the square of each piece in signature order,
+ * encoding the win, draw or loss for the side to move and its DTZ. Files are
+ * written by {@link TablebaseGenerator}.
+ * <p>
+ * Files are mapped on first use and kept in a least recently used cache
+ * bounded both by the number of open mappings and by their total size, so a
+ * directory far bigger than memory can be probed. Positions with castling
+ * rights are never covered.
+ * <p>
+ * The table each material balance reads, and that table's mapping, are kept
+ * per material key, so a probe of an open table builds no signature and takes
+ * no lock, however many search threads probe at once.
+ */
+public final class Tablebases {
+    public static final String EXTENSION = ".ctb";
+    static final int HEADER_BYTES = 16;
+    static final int MAGIC = 0x43544231;
+
+    //Values stored per position. Wins store their DTZ, losses -1 - DTZ.
+    static final byte DRAW = 0;
+    static final byte INVALID = -128;
+    static final int MAX_DTZ = 126;
+
+    //Signature letters, strongest first, and the piece type each stands for
+    private static final String LETTERS = "KQRBNP";
+    private static final PieceType[] LETTER_TYPES = {PieceType.KING, PieceType.QUEEN, PieceType.ROOK,
+            PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN};
+    private static final Material NO_TABLE = new Material(null, false);
+
+    private final Path directory;
+    private final int maxOpenFiles;
+    private final long maxMappedBytes;
+    private final Set<String> available = new HashSet<>();
+    private final int maxPieces;
+
+    //The table and orientation of each material key seen so far, NO_TABLE where there is none
+    private final ConcurrentHashMap<Long, Material> materials = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+
+    //Guarded by itself, as are mappedBytes and useEpoch writes
+    private final List<Table> open = new ArrayList<>();
+    private long mappedBytes;
+    //Bumped on every mapping; a probe stamps its table with it, which is all eviction needs to rank use
+    private volatile long useEpoch;
+
+    /**
+     * One table file, mapped or not.
+     */
+    private static final class Table {
+        private final String signature;
+        private final int[] slots;
+        private volatile ByteBuffer buffer;
+        private volatile long lastUsed;
+
+        private Table(String signature) {
+            this.signature = signature;
+            this.slots = slots(signature);
+        }
+    }
+
+    /**
+     * @param mirror whether the board is read with colors swapped to fit the table
+     */
+    private record Material(Table table, boolean mirror) {
+    }
+
+    /**
+     * Uses up to 32 open files and 256 MB of mappings.
+     *
+     * @see #Tablebases(Path, int, long)
+     */
+    public Tablebases(Path directory) throws IOException {
+        this(directory, 32, 256L * 1024 * 1024);
+    }
+
+    /**
+     * @param directory      directory holding the table files
+     * @param maxOpenFiles   most files to keep mapped at once
+     * @param maxMappedBytes most bytes to keep mapped at once; a single file larger
+     *                       than this is still mapped while it is being probed
+     * @throws IOException if the directory cannot be listed
+     */
+    public Tablebases(Path directory, int maxOpenFiles, long maxMappedBytes) throws IOException {
+        if(maxOpenFiles < 1 || maxMappedBytes < 1) {
+            throw new IllegalArgumentException("Tablebase cache limits must be positive");
+        }
+        this.directory = directory;
+        this.maxOpenFiles = maxOpenFiles;
+        this.maxMappedBytes = maxMappedBytes;
+        int most = 0;
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for(Path file : files) {
+                String name = file.getFileName().toString();
+                String signature = name.substring(0, name.length() - EXTENSION.length());
+                available.add(signature);
+                most = Math.max(most, signature.length() - 1);
+            }
+        }
+        maxPieces = most;
+    }
+
+    /**
+     * @return Most pieces, kings included, of any table in the directory
+     */
+    public int maxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * @return Number of table files currently mapped
+     */
+    public int openFiles() {
+        synchronized(open) {
+            return open.size();
+        }
+    }
+
+    /**
+     * @return Total size of the table files currently mapped
+     */
+    public long mappedBytes() {
+        synchronized(open) {
+            return mappedBytes;
+        }
+    }
+
+    /**
+     * Looks up the game's position.
+     *
+     * @return The outcome for the side to move, or null if no table covers the
+     * position: too many pieces, castling or an en passant capture still possible,
+     * or no file for its material
+     * @throws UncheckedIOException if a table file cannot be mapped
+     */
+    public TablebaseResult probe(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int pieces = Long.bitCount(board.occupancy());
+        //The tables index placement and side to move only, so they cannot tell these positions apart.
+        if(game.castlingRights() != 0 || game.canCaptureEnPassant()) {
+            return null;
+        }
+        //Two kings are a draw without any file.
+        if(pieces == 2) {
+            return new TablebaseResult(TablebaseResult.Wdl.DRAW, 0);
+        }
+        if(pieces > maxPieces) {
+            return null;
+        }
+        long key = materialKey(board);
+        Material material = materials.get(key);
+        if(material == null) {
+            material = materials.computeIfAbsent(key, unused -> material(board));
+        }
+        Table table = material.table();
+        if(table == null) {
+            return null;
+        }
+        ByteBuffer buffer = table.buffer;
+        long epoch = useEpoch;
+        if(buffer == null) {
+            buffer = map(table);
+        } else if(table.lastUsed != epoch) {
+            table.lastUsed = epoch;
+        }
+        int index = index(board, game.getTeamTurn().ordinal(), table.slots, material.mirror());
+        return decode(buffer.get(HEADER_BYTES + index));
+    }
+
+    /**
+     * Picks the move that keeps the best outcome the table promises: the fastest
+     * progress when winning, the longest resistance when losing.
+     *
+     * @return The best move, or null if no table covers the position or every
+     * resulting position
+     */
+    public ChessMove bestMove(ChessGame game) {
+        if(probe(game) == null) {
+            return null;
+        }
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        int count = game.legalMoves(moves);
+        int best = PackedMove.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for(int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            TablebaseResult child = probe(game);
+            boolean zeroing = game.getHalfmoveClock() == 0;
+            game.unmakeMove();
+            if(child == null) {
+                continue;
+            }
+            int rank = rank(child, zeroing);
+            if(rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best == PackedMove.NONE ? null : PackedMove.toChessMove(best);
+    }
+
+    /**
+     * Orders moves by the opponent's outcome after them: wins for us first,
+     * fastest first, where a capture counts as immediate progress, then draws,
+     * then losses, slowest first.
+     */
+    private static int rank(TablebaseResult child, boolean zeroing) {
+        return switch(child.wdl()) {
+            case LOSS -> 1000 - (zeroing ? 0 : child.dtz());
+            case DRAW -> 0;
+            case WIN -> -1000 + child.dtz();
+        };
+    }
+
+    static TablebaseResult decode(byte value) {
+        if(value == INVALID) {
+            throw new IllegalStateException("Tablebase lookup of an impossible position");
+        }
+        if(value == DRAW) {
+            return new TablebaseResult(TablebaseResult.Wdl.DRAW, 0);
+        }
+        if(value > 0) {
+            return new TablebaseResult(TablebaseResult.Wdl.WIN, value);
+        }
+        return new TablebaseResult(TablebaseResult.Wdl.LOSS, -1 - value);
+    }
+
+    static byte encode(TablebaseResult.Wdl wdl, int dtz) {
+        return switch(wdl) {
+            case WIN -> (byte) dtz;
+            case DRAW -> DRAW;
+            case LOSS -> (byte) (-1 - dtz);
+        };
+    }
+
+    /**
+     * @return A key for the board's material: the count of each piece index, four bits each
+     */
+    static long materialKey(ChessBoard board) {
+        long key = 0;
+        for(int piece = 0; piece < ChessBoard.NUM_PIECE_INDEXES; piece++) {
+            key |= (long) Long.bitCount(board.pieceBitboards[piece]) << (4 * piece);
+        }
+        return key;
+    }
+
+    /**
+     * @return The table covering the board's material, as it is or with colors swapped
+     */
+    private Material material(ChessBoard board) {
+        for(boolean mirror : new boolean[]{false, true}) {
+            String signature = signature(board, mirror);
+            if(available.contains(signature)) {
+                return new Material(tables.computeIfAbsent(signature, Table::new), mirror);
+            }
+        }
+        return NO_TABLE;
+    }
+
+    /**
+     * @param swapColors whether to read black's pieces as white's and the other way around
+     * @return The material signature of the board, like KRvKN
+     */
+    static String signature(ChessBoard board, boolean swapColors) {
+        StringBuilder signature = new StringBuilder(8);
+        for(int side = 0; side < 2; side++) {
+            int color = swapColors ? 1 - side : side;
+            if(side == 1) {
+                signature.append('v');
+            }
+            for(int i = 0; i < LETTER_TYPES.length; i++) {
+                int count = Long.bitCount(board.pieces(color, LETTER_TYPES[i]));
+                for(int j = 0; j < count; j++) {
+                    signature.append(LETTERS.charAt(i));
+                }
+            }
+        }
+        return signature.toString();
+    }
+
+    /**
+     * @return The piece index standing in each slot of a signature's position index
+     */
+    static int[] slots(String signature) {
+        int[] slots = new int[signature.length() - 1];
+        int color = 0;
+        int slot = 0;
+        for(int i = 0; i < signature.length(); i++) {
+            char letter = signature.charAt(i);
+            if(letter == 'v') {
+                color = 1;
+                continue;
+            }
+            int type = LETTERS.indexOf(letter);
+            if(type < 0) {
+                throw new IllegalArgumentException("Not a tablebase signature: " + signature);
+            }
+            slots[slot++] = color * 6 + LETTER_TYPES[type].ordinal();
+        }
+        return slots;
+    }
+
+    /**
+     * @return Number of positions a table for the given slots holds
+     */
+    static long positions(int[] slots) {
+        return 2L << (6 * slots.length);
+    }
+
+    /**
+     * Computes a position's index within its table: the side to move, then the
+     * square of the piece in each slot. Pieces of the same kind fill their slots
+     * in increasing square order.
+     *
+     * @param mirror whether the table is for the colors swapped, in which case
+     *               the board is read with colors swapped and ranks flipped
+     */
+    static int index(ChessBoard board, int sideToMove, int[] slots, boolean mirror) {
+        int index = mirror ? 1 - sideToMove : sideToMove;
+        int slot = 0;
+        while(slot < slots.length) {
+            int slotPiece = slots[slot];
+            int boardPiece = mirror ? (1 - ChessBoard.colorOf(slotPiece)) * 6 + ChessBoard.typeOf(slotPiece) : slotPiece;
+            long bits = board.pieceBitboards[boardPiece];
+            if(mirror) {
+                bits = Long.reverseBytes(bits);
+            }
+            while(bits != 0) {
+                index = (index << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                slot++;
+            }
+        }
+        return index;
+    }
+
+    private ByteBuffer map(Table table) {
+        synchronized(open) {
+            ByteBuffer buffer = table.buffer;
+            if(buffer != null) {
+                return buffer;
+            }
+            buffer = map(directory.resolve(table.signature + EXTENSION), positions(table.slots));
+            table.buffer = buffer;
+            table.lastUsed = ++useEpoch;
+            open.add(table);
+            mappedBytes += buffer.capacity();
+            //Dropping a mapping lets it be unmapped once no probe still reads it.
+            while((open.size() > maxOpenFiles || mappedBytes > maxMappedBytes) && open.size() > 1) {
+                Table eldest = null;
+                for(Table candidate : open) {
+                    if(candidate != table && (eldest == null || candidate.lastUsed < eldest.lastUsed)) {
+                        eldest = candidate;
+                    }
+                }
+                open.remove(eldest);
+                mappedBytes -= eldest.buffer.capacity();
+                eldest.buffer = null;
+            }
+            return buffer;
+        }
+    }
+
+    private static ByteBuffer map(Path path, long positions) {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() != HEADER_BYTES + positions) {
+                throw new IOException(path + " has the wrong size for its material");
+            }
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than the 2 GB a single mapping can hold");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a tablebase file");
+            }
+            return buffer;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
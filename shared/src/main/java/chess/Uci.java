@@ -0,0 +1,113 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Moves in the long algebraic notation of the Universal Chess Interface:
+ * start and end square, then the promotion piece in lower case, as in
+ * {@code e2e4} and {@code e7e8q}. Castling is the king's two-square move,
+ * {@code e1g1}.
+ * <p>
+ * Unlike SAN, a UCI move can be read and written without knowing the
+ * position. The text of each move is built once and then shared, since a
+ * move is one of only 2^15 start, end and promotion combinations.
+ */
+public final class Uci {
+    //Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final String PROMOTION_LETTERS = "kqbnrp";
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * Shared text of each move, indexed by {@link PackedMove#MOVE_MASK}. Filled in
+     * as moves are first written; a lost race only builds an equal string.
+     */
+    private static final String[] NAMES = new String[PackedMove.MOVE_MASK + 1];
+
+    private Uci() {
+
+    }
+
+    /**
+     * @param move packed move; its flags are ignored
+     * @return The move in UCI notation
+     */
+    public static String format(int move) {
+        int index = move & PackedMove.MOVE_MASK;
+        String name = NAMES[index];
+        if(name == null) {
+            StringBuilder text = new StringBuilder(5);
+            San.appendSquare(text, PackedMove.from(index));
+            San.appendSquare(text, PackedMove.to(index));
+            int promotion = PackedMove.promotion(index);
+            if(promotion != 0) {
+                text.append(PROMOTION_LETTERS.charAt(promotion - 1));
+            }
+            name = text.toString();
+            NAMES[index] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @return The move in UCI notation
+     */
+    public static String format(ChessMove move) {
+        return format(PackedMove.fromChessMove(move));
+    }
+
+    /**
+     * Reads a move without checking it against any position.
+     *
+     * @return The shared ChessMove instance for the text
+     * @throws IllegalArgumentException if the text is not a UCI move
+     */
+    public static ChessMove parse(CharSequence uci) {
+        return PackedMove.toChessMove(parse(uci, 0, uci.length()));
+    }
+
+    /**
+     * @return The legal move the UCI text names, as a packed move with flags
+     * @throws IllegalArgumentException if the text is not a UCI move, or not a legal one
+     */
+    public static int parse(ChessGame game, CharSequence uci) {
+        return parse(game, uci, 0, uci.length(), new int[ChessMovesCalculator.MAX_MOVES]);
+    }
+
+    /**
+     * Reads the UCI move between {@code start} and {@code end} of the text and
+     * finds it among the game's legal moves, which carry the flags needed to
+     * play it.
+     *
+     * @param moves scratch buffer of at least {@link ChessMovesCalculator#MAX_MOVES} entries
+     * @return The legal move the text names, as a packed move with flags
+     * @throws IllegalArgumentException if the text is not a UCI move, or not a legal one
+     */
+    public static int parse(ChessGame game, CharSequence uci, int start, int end, int[] moves) {
+        int move = parse(uci, start, end);
+        int count = game.legalMoves(moves);
+        for(int i = 0; i < count; i++) {
+            if(PackedMove.sameMove(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException("UCI move " + uci.subSequence(start, end) + " is not legal");
+    }
+
+    /**
+     * @return The packed move, without flags
+     */
+    private static int parse(CharSequence uci, int start, int end) {
+        int length = end - start;
+        int from = length >= 4 ? San.square(uci.charAt(start), uci.charAt(start + 1)) : -1;
+        int to = length >= 4 ? San.square(uci.charAt(start + 2), uci.charAt(start + 3)) : -1;
+        int promotion = 0;
+        if(length == 5) {
+            int type = PROMOTION_LETTERS.indexOf(uci.charAt(start + 4));
+            promotion = type > 0 && TYPES[type] != PieceType.PAWN ? type + 1 : -1;
+        }
+        if(from < 0 || to < 0 || promotion < 0 || length > 5) {
+            throw new IllegalArgumentException("Not a UCI move: " + uci.subSequence(start, end));
+        }
+        return PackedMove.encode(from, to, promotion, 0);
+    }
+}
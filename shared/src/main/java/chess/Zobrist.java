@@ -0,0 +1,49 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ * <p>
+ * A position's key is the XOR of the key of every piece on its square, plus
+ * keys for black to move, the castling rights and the en passant file. Because
+ * XOR is its own inverse, adding or removing a piece updates the key with a
+ * single XOR. The keys come from a fixed seed so every process agrees on them
+ * and hashes can be shared between servers or stored.
+ */
+final class Zobrist {
+    //Indexed [pieceIndex * 64 + square]
+    static final long[] PIECE_SQUARE = new long[ChessBoard.NUM_PIECE_INDEXES * 64];
+    static final long BLACK_TO_MOVE;
+    //Indexed by the castling rights bit set from ChessGame
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for(int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        //Each right gets its own key and a set of rights is the XOR of its members.
+        long[] rightKeys = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+        for(int rights = 0; rights < 16; rights++) {
+            for(int bit = 0; bit < 4; bit++) {
+                if((rights & (1 << bit)) != 0) {
+                    CASTLING[rights] ^= rightKeys[bit];
+                }
+            }
+        }
+        for(int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+
+    }
+
+    static long pieceSquare(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex * 64 + square];
+    }
+}
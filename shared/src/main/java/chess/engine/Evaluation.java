@@ -0,0 +1,51 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation of a position, in centipawns from the point of view of the
+ * side to move.
+ * <p>
+ * The score is material plus piece-square bonuses, tapered between midgame and
+ * endgame values by how much material is left. The board keeps the sums up to
+ * date as pieces move, so evaluating costs the same whatever the position.
+ */
+public final class Evaluation {
+    private Evaluation() {
+
+    }
+
+    /**
+     * @return The tapered score, positive when the side to move is ahead
+     */
+    public static int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = PieceSquareTables.taper(board.midgameScore(), board.endgameScore(), board.gamePhase());
+        return game.getTeamTurn() == TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Computes the same score as {@link #evaluate(ChessGame)} by scanning every
+     * square, without the board's running sums. Used to check and benchmark them.
+     */
+    public static int evaluateFromScratch(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for(int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if(piece != null) {
+                midgame += PieceSquareTables.midgame(piece, square);
+                endgame += PieceSquareTables.endgame(piece, square);
+                phase += PieceSquareTables.phase(piece.getPieceType());
+            }
+        }
+        int score = PieceSquareTables.taper(midgame, endgame, phase);
+        return game.getTeamTurn() == TeamColor.WHITE ? score : -score;
+    }
+}
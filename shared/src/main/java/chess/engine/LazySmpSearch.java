@@ -0,0 +1,141 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Tablebases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP: several threads search the same position at once, sharing nothing
+ * but a {@link TranspositionTable}.
+ * <p>
+ * The calling thread runs the main search, whose result is the one returned.
+ * Helper threads run their own searches alongside it, half of them starting one
+ * ply deeper, and fill the shared table with results the main search then finds
+ * instead of searching again. When the main search finishes, the helpers are
+ * stopped.
+ * <p>
+ * With one thread no helpers run at all, and the result is exactly what a plain
+ * {@link Search} would return, which keeps tests deterministic.
+ */
+public class LazySmpSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final int threads;
+    private final Search main;
+    private final ExecutorService helpers;
+    private Tablebases tablebases;
+
+    /**
+     * @param table   transposition table shared by every thread
+     * @param threads total number of search threads, the calling thread included
+     */
+    public LazySmpSearch(TranspositionTable table, int threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.table = table;
+        this.threads = threads;
+        main = new Search(table);
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return Total number of search threads, the calling thread included
+     */
+    public int threads() {
+        return threads;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Gives the main search and every helper the same endgame tables.
+     *
+     * @see Search#setTablebases(Tablebases)
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        main.setTablebases(tablebases);
+    }
+
+    /**
+     * @see Search#search(ChessGame, SearchLimits)
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> { });
+    }
+
+    /**
+     * Searches with every thread until the main search reaches one of the limits.
+     *
+     * @return The main search's result, with the nodes of every thread counted
+     * @see Search#search(ChessGame, SearchLimits, Consumer)
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        if(helpers == null) {
+            return main.search(game, limits, onIteration);
+        }
+
+        //Before any helper stores, so none of their entries carry the last search's generation
+        table.newSearch();
+        AtomicBoolean helperStop = new AtomicBoolean();
+        //Helpers only stop when told to, so the main search alone decides when to answer.
+        SearchLimits helperLimits = new SearchLimits(0, limits.timeMillis(), 0);
+        List<Future<SearchResult>> running = new ArrayList<>(threads - 1);
+        for(int i = 1; i < threads; i++) {
+            Search helper = new Search(table, helperStop);
+            helper.setTablebases(tablebases);
+            int firstDepth = 1 + (i & 1);
+            running.add(helpers.submit(() -> helper.search(game, helperLimits, result -> { }, firstDepth)));
+        }
+
+        SearchResult result;
+        try {
+            result = main.search(game, limits, onIteration, 1);
+        } finally {
+            helperStop.set(true);
+        }
+
+        long nodes = result.nodes();
+        for(Future<SearchResult> helper : running) {
+            try {
+                nodes += helper.get().nodes();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch(ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.elapsedNanos());
+    }
+
+    /**
+     * Asks a running search to return its current best move as soon as possible.
+     */
+    public void stop() {
+        main.stop();
+    }
+
+    /**
+     * Shuts down the helper threads.
+     */
+    @Override
+    public void close() {
+        if(helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
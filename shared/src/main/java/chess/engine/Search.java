@@ -0,0 +1,488 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessMovesCalculator;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.PackedMove;
+import chess.TablebaseResult;
+import chess.Tablebases;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Iterative deepening alpha-beta search.
+ * <p>
+ * Each iteration searches one ply deeper than the last, starting from the
+ * previous iteration's best move, and ends in a quiescence search over captures
+ * and promotions so positions are only scored once they are quiet. Moves are
+ * tried in the order most likely to cause a cutoff: captures by most valuable
+ * victim and least valuable attacker (MVV-LVA), then the killer moves that
+ * caused cutoffs at the same ply, then quiet moves by their history score.
+ * Captures that static exchange evaluation says lose material go last, and
+ * quiescence skips them altogether.
+ * Results are kept in a {@link TranspositionTable}, whose best move is tried
+ * before all others when a position comes up again. With {@link Tablebases}
+ * set, positions they cover are scored by lookup instead of being searched.
+ * <p>
+ * The search plays moves in place on its own copy of the game, so the game
+ * passed in is never changed. A Search reuses its buffers between calls and is
+ * not safe to use from more than one thread, except for {@link #stop()}.
+ */
+public class Search {
+    public static final int MAX_PLY = 64;
+    public static final int MATE = 30000;
+    //Scores at least this large mean a forced mate within MAX_PLY plies.
+    public static final int MATE_THRESHOLD = MATE - MAX_PLY;
+    static final int INFINITY = MATE + 1;
+    //Tablebase wins score below every mate the search can find, but above any evaluation.
+    public static final int TABLEBASE_WIN = MATE_THRESHOLD - MAX_PLY;
+
+    //Limits are only checked every this many nodes, since reading the clock is not free.
+    private static final int CHECK_INTERVAL_MASK = 1023;
+
+    private static final int CAPTURE_ORDER = 3_000_000;
+    private static final int PROMOTION_ORDER = 2_000_000;
+    private static final int KILLER_ORDER = 1_000_000;
+    private static final int HISTORY_MAX = 500_000;
+    private static final int LOSING_CAPTURE_ORDER = -1_000_000;
+    //Indexed by PieceType ordinal; MVV-LVA ranks the king as the least willing attacker.
+    private static final int[] ORDER_RANK = {6, 5, 3, 3, 4, 1};
+
+    private final int[][] moves = new int[MAX_PLY][ChessMovesCalculator.MAX_MOVES];
+    private final int[][] orderScores = new int[MAX_PLY][ChessMovesCalculator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    //Indexed [color][from * 64 + to]
+    private final int[][] history = new int[2][64 * 64];
+
+    private final TranspositionTable table;
+    //Set by whoever runs this search as a Lazy SMP helper, or null
+    private final AtomicBoolean helperStop;
+    private Tablebases tablebases;
+    private ChessGame game;
+    private ChessBoard board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int rootBestMove;
+    private int rootBestScore;
+
+    /**
+     * Creates a search with its own transposition table of the default size.
+     */
+    public Search() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    /**
+     * @param table transposition table to read and store results in; it is kept
+     *              between searches and may be shared with other Search instances
+     */
+    public Search(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * @param helperStop flag that stops this search once set, shared by every
+     *                   helper of a {@link LazySmpSearch}
+     */
+    Search(TranspositionTable table, AtomicBoolean helperStop) {
+        this.table = table;
+        this.helperStop = helperStop;
+    }
+
+    /**
+     * @return The transposition table this search uses
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * @param tablebases endgame tables to look positions up in, or null to search everything
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Searches the game's position until one of the limits is reached.
+     *
+     * @return The best move of the last finished iteration
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> { });
+    }
+
+    /**
+     * Searches the game's position until one of the limits is reached, reporting
+     * the result of each finished iteration as it goes.
+     *
+     * @param onIteration called with the best move, score, nodes and speed after every iteration
+     * @return The best move of the last finished iteration
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        return search(game, limits, onIteration, 1);
+    }
+
+    /**
+     * Searches without starting a new table generation, which a
+     * {@link LazySmpSearch} starts once for all of its threads.
+     *
+     * @param firstDepth depth of the first iteration; Lazy SMP helpers start
+     *                   deeper so that threads spread over different depths
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration, int firstDepth) {
+        long start = System.nanoTime();
+        this.game = new ChessGame(game);
+        board = this.game.getBoard();
+        nodes = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        aborted = false;
+        stopRequested = false;
+        for(int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        for(int[] colorHistory : history) {
+            Arrays.fill(colorHistory, 0);
+        }
+
+        int[] rootMoves = moves[0];
+        int rootCount = this.game.legalMoves(rootMoves);
+        if(rootCount == 0) {
+            int score = this.game.isInCheck(this.game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, System.nanoTime() - start);
+        }
+        if(tablebases != null) {
+            ChessMove tablebaseMove = tablebases.bestMove(this.game);
+            if(tablebaseMove != null) {
+                int score = tablebaseScore(tablebases.probe(this.game), 0);
+                return new SearchResult(tablebaseMove, score, 0, 0, System.nanoTime() - start);
+            }
+        }
+        //Until an iteration finishes, fall back on the move ordered first.
+        scoreMoves(0, rootCount, PackedMove.NONE);
+        pickMove(0, 0, rootCount);
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int bestDepth = 0;
+
+        int maxDepth = limits.maxDepth() > 0 ? limits.maxDepth() : MAX_PLY - 1;
+        long softDeadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 500_000 : Long.MAX_VALUE;
+        for(int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            rootBestMove = PackedMove.NONE;
+            rootBestScore = -INFINITY;
+            int score = searchRoot(depth, bestMove);
+            if(aborted) {
+                //The previous best move is searched first, so anything that beat it is still an improvement.
+                if(rootBestMove != PackedMove.NONE && rootBestScore > bestScore) {
+                    bestMove = rootBestMove;
+                    bestScore = rootBestScore;
+                }
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            bestDepth = depth;
+            onIteration.accept(result(bestMove, bestScore, bestDepth, start));
+            //A mate that has been found cannot get any shorter, and another iteration likely will not fit in the time left.
+            if(Math.abs(bestScore) >= MATE_THRESHOLD || System.nanoTime() >= softDeadline) {
+                break;
+            }
+        }
+        return result(bestMove, bestScore, bestDepth, start);
+    }
+
+    /**
+     * @return The score of a tablebase result, preferring wins that are closer to the root
+     */
+    private static int tablebaseScore(TablebaseResult result, int ply) {
+        return switch(result.wdl()) {
+            case WIN -> TABLEBASE_WIN - ply;
+            case DRAW -> 0;
+            case LOSS -> -TABLEBASE_WIN + ply;
+        };
+    }
+
+    /**
+     * Asks a running search to return its current best move as soon as possible.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    private SearchResult result(int move, int score, int depth, long start) {
+        return new SearchResult(PackedMove.toChessMove(move), score, depth, nodes, System.nanoTime() - start);
+    }
+
+    private int searchRoot(int depth, int previousBest) {
+        int[] plyMoves = moves[0];
+        int count = game.legalMoves(plyMoves);
+        scoreMoves(0, count, previousBest);
+        int alpha = -INFINITY;
+        for(int i = 0; i < count; i++) {
+            int move = pickMove(0, i, count);
+            game.makeMove(move);
+            int score = -alphaBeta(depth - 1, 1, -INFINITY, -alpha);
+            game.unmakeMove();
+            if(aborted) {
+                return alpha;
+            }
+            if(score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+                rootBestScore = score;
+            }
+        }
+        table.store(game.zobristKey(), rootBestMove, toTableScore(alpha, 0), depth, TranspositionTable.BOUND_EXACT);
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        //Never stop searching while in check, so a mate at the horizon is seen.
+        if(inCheck) {
+            depth++;
+        }
+        if(depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+        if(limitReached()) {
+            return 0;
+        }
+        nodes++;
+
+        int[] plyMoves = moves[ply];
+        int count = game.legalMoves(plyMoves);
+        if(count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if(game.getHalfmoveClock() >= 100) {
+            return 0;
+        }
+        if(tablebases != null) {
+            TablebaseResult known = tablebases.probe(game);
+            if(known != null) {
+                return tablebaseScore(known, ply);
+            }
+        }
+
+        long key = game.zobristKey();
+        long entry = table.probe(key);
+        int tableMove = PackedMove.NONE;
+        if(entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.move(entry);
+            if(TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if(bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        scoreMoves(ply, count, tableMove);
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for(int i = 0; i < count; i++) {
+            int move = pickMove(ply, i, count);
+            game.makeMove(move);
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if(aborted) {
+                return 0;
+            }
+            if(score > best) {
+                best = score;
+                bestMove = move;
+                if(score > alpha) {
+                    alpha = score;
+                    if(score >= beta) {
+                        if(isQuiet(move)) {
+                            storeKiller(ply, move);
+                            addHistory(move, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bestMove, toTableScore(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures and promotions until the position is quiet. The side to
+     * move may also decline them all and stand on the static evaluation.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        if(limitReached()) {
+            return 0;
+        }
+        nodes++;
+
+        int standPat = Evaluation.evaluate(game);
+        if(standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if(standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] plyMoves = moves[ply];
+        int count = game.legalMoves(plyMoves);
+        int tactical = 0;
+        for(int i = 0; i < count; i++) {
+            if(!isQuiet(plyMoves[i])) {
+                plyMoves[tactical++] = plyMoves[i];
+            }
+        }
+        scoreMoves(ply, tactical, PackedMove.NONE);
+        for(int i = 0; i < tactical; i++) {
+            int move = pickMove(ply, i, tactical);
+            if(orderScores[ply][i] < 0) {
+                //Only losing captures are left, and none of them can raise the score above standing pat.
+                break;
+            }
+            game.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if(aborted) {
+                return 0;
+            }
+            if(score > alpha) {
+                alpha = score;
+                if(score >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry can be reached at
+     * any ply, so they are stored counting from the entry's own position.
+     */
+    private static int toTableScore(int score, int ply) {
+        if(score >= MATE_THRESHOLD) {
+            return score + ply;
+        }
+        if(score <= -MATE_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if(score >= MATE_THRESHOLD) {
+            return score - ply;
+        }
+        if(score <= -MATE_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private boolean limitReached() {
+        if(aborted) {
+            return true;
+        }
+        if(nodes >= nodeLimit || ((nodes & CHECK_INTERVAL_MASK) == 0
+                && (stopRequested || System.nanoTime() >= deadline
+                || (helperStop != null && helperStop.get())))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private static boolean isQuiet(int move) {
+        return !PackedMove.hasFlag(move, PackedMove.FLAG_CAPTURE) && PackedMove.promotion(move) == 0;
+    }
+
+    private void scoreMoves(int ply, int count, int firstMove) {
+        int[] plyMoves = moves[ply];
+        int[] scores = orderScores[ply];
+        int[] colorHistory = history[game.getTeamTurn().ordinal()];
+        for(int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            int score;
+            if(firstMove != PackedMove.NONE && PackedMove.sameMove(move, firstMove)) {
+                score = Integer.MAX_VALUE;
+            } else if(PackedMove.hasFlag(move, PackedMove.FLAG_CAPTURE)) {
+                //En passant is the only capture whose victim is not on the target square.
+                ChessPiece victim = board.getPiece(PackedMove.to(move));
+                int victimRank = victim == null ? ORDER_RANK[PieceType.PAWN.ordinal()]
+                        : ORDER_RANK[victim.getPieceType().ordinal()];
+                int attackerRank = ORDER_RANK[board.getPiece(PackedMove.from(move)).getPieceType().ordinal()];
+                score = victimRank * 8 - attackerRank + PackedMove.promotion(move);
+                //Taking a piece worth at least the attacker can never lose material, so only the rest need an exchange evaluation.
+                score += victimRank >= attackerRank || game.see(move) >= 0 ? CAPTURE_ORDER : LOSING_CAPTURE_ORDER;
+            } else if(PackedMove.promotion(move) != 0) {
+                score = PackedMove.promotionPiece(move) == PieceType.QUEEN ? PROMOTION_ORDER : 0;
+            } else if(PackedMove.sameMove(move, killers[ply][0])) {
+                score = KILLER_ORDER + 1;
+            } else if(PackedMove.sameMove(move, killers[ply][1])) {
+                score = KILLER_ORDER;
+            } else {
+                score = colorHistory[PackedMove.from(move) * 64 + PackedMove.to(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Swaps the best scored move of those not yet tried into position index,
+     * so moves that are never reached because of a cutoff are never sorted.
+     */
+    private int pickMove(int ply, int index, int count) {
+        int[] plyMoves = moves[ply];
+        int[] scores = orderScores[ply];
+        int best = index;
+        for(int i = index + 1; i < count; i++) {
+            if(scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[index];
+        plyMoves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    private void storeKiller(int ply, int move) {
+        if(!PackedMove.sameMove(move, killers[ply][0])) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void addHistory(int move, int depth) {
+        int[] colorHistory = history[game.getTeamTurn().ordinal()];
+        int index = PackedMove.from(move) * 64 + PackedMove.to(move);
+        colorHistory[index] += depth * depth;
+        //Halve everything once a score gets large, so old cutoffs fade and scores stay below the killers.
+        if(colorHistory[index] > HISTORY_MAX) {
+            for(int i = 0; i < colorHistory.length; i++) {
+                colorHistory[i] /= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package chess.engine;
+
+/**
+ * How much work a search may do before it has to answer. A search stops at
+ * whichever limit it reaches first; a limit of 0 means unlimited, though at
+ * least one of them should be set.
+ *
+ * @param maxDepth   deepest iteration to search, in plies
+ * @param timeMillis wall clock budget, in milliseconds
+ * @param maxNodes   number of positions to visit
+ */
+public record SearchLimits(int maxDepth, long timeMillis, long maxNodes) {
+    public SearchLimits {
+        if(maxDepth < 0 || timeMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Search limits cannot be negative");
+        }
+        if(maxDepth > Search.MAX_PLY) {
+            maxDepth = Search.MAX_PLY;
+        }
+    }
+
+    /**
+     * @return Limits that search every iteration up to the given depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    /**
+     * @return Limits that answer within the given number of milliseconds
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    /**
+     * @return Limits that stop after visiting the given number of positions
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(0, 0, maxNodes);
+    }
+}
@@ -0,0 +1,29 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a search found, as of its last finished iteration.
+ *
+ * @param bestMove     move to play, or null if the side to move has no legal move
+ * @param score        score of the best move in centipawns for the side to move;
+ *                     scores beyond {@link Search#MATE_THRESHOLD} are forced mates
+ * @param depth        depth of the deepest iteration that produced the move
+ * @param nodes        positions visited, quiescence included
+ * @param elapsedNanos wall clock time spent searching
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos) {
+    /**
+     * @return Search speed in nodes per second
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return Whether the score is a forced mate for either side
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE_THRESHOLD;
+    }
+}
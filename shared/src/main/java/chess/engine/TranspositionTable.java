@@ -0,0 +1,166 @@
+package chess.engine;
+
+import chess.PackedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size hash table of search results, keyed by {@link chess.ChessGame#zobristKey()},
+ * so a position reached again through a different move order is not searched twice.
+ * <p>
+ * Each entry is two longs in one flat array: the data word, and the key XORed
+ * with the data. Threads read and write entries without locks; if two writes
+ * interleave, the stored key no longer matches the data it is XORed with, and
+ * the torn entry reads as a miss instead of handing back another position's
+ * result.
+ * <p>
+ * A data word packs, from the low bit up: move (16 bits, start, end and promotion
+ * only), score (16 bits, signed), depth (8 bits), bound (2 bits, never 0 so a
+ * stored entry is never the empty word) and the generation of the search that
+ * stored it (8 bits).
+ */
+public final class TranspositionTable {
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    //Returned by probe when the position is not in the table
+    public static final long MISS = 0;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+
+    private final long[] table;
+    private final int indexMask;
+    //Written by the thread starting a search, read by every thread that stores
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param megabytes memory to use; rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        if(megabytes < 1 || megabytes > 16384) {
+            throw new IllegalArgumentException("Transposition table size must be between 1 and 16384 MB");
+        }
+        int entries = Integer.highestOneBit((int) Math.min((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY,
+                Integer.MAX_VALUE / 2));
+        table = new long[entries * 2];
+        indexMask = entries - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @return The entry's data word, or MISS; unpack it with the static accessors
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = ((int) key & indexMask) * 2;
+        long data = table[index];
+        long check = table[index + 1];
+        if(data == MISS || (check ^ data) != key) {
+            return MISS;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * Stores a search result. An existing entry for a different position is only
+     * replaced if the new result is at least as deep, or the old one was left by
+     * an earlier search.
+     *
+     * @param move  packed best move, or PackedMove.NONE
+     * @param score score in centipawns, with mate scores relative to this position
+     * @param depth remaining depth the score was searched to
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & indexMask) * 2;
+        long old = table[index];
+        int current = generation;
+        if(old != MISS && (table[index + 1] ^ old) != key
+                && generation(old) == current && depth(old) > depth) {
+            return;
+        }
+        long data = (move & PackedMove.MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 255)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) current << GENERATION_SHIFT);
+        table[index] = data;
+        table[index + 1] = key ^ data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches give way
+     * to new ones whatever their depth.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table and resets the hit counters.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * @return Number of entries the table holds
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Fraction of probes that found their position, or 0 before the first probe
+     */
+    public double hitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * @return The packed move, without flags; compare it with {@link PackedMove#sameMove(int, int)}
+     */
+    public static int move(long data) {
+        return (int) (data & PackedMove.MOVE_MASK);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 3);
+    }
+
+    static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+}
@@ -0,0 +1,24 @@
+package chess.pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file.
+ *
+ * @param tags   tag pairs in file order, such as Event, White and Result
+ * @param moves  the moves played, as packed moves with flags
+ * @param game   the game after its moves, which can be taken back one by one
+ * @param result 1-0, 0-1, 1/2-1/2, or * if unfinished or not given
+ * @param error  why the game could not be read to its end, or null if it was;
+ *               the moves before the error are still kept
+ */
+public record PgnGame(Map<String, String> tags, int[] moves, ChessGame game, String result, String error) {
+    /**
+     * @return Whether every move of the game was read
+     */
+    public boolean isComplete() {
+        return error == null;
+    }
+}
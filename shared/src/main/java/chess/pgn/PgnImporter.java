@@ -0,0 +1,224 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Reads a PGN file on several threads at once.
+ * <p>
+ * The file is cut into chunks of about the configured size, each ending just
+ * before an {@code [Event } tag so that no game is split, and every chunk is
+ * read by its own {@link PgnReader} on the executor. Readers share the open
+ * file through positional reads, and each only buffers what it is reading, so
+ * memory use does not grow with the file.
+ * <p>
+ * Usage: {@code PgnImporter file.pgn [--threads N]} reads a file and reports
+ * games per second.
+ */
+public final class PgnImporter {
+    public static final long DEFAULT_CHUNK_BYTES = 4L * 1024 * 1024;
+
+    private static final byte[] GAME_START = "\n[Event ".getBytes(StandardCharsets.US_ASCII);
+
+    private final ExecutorService executor;
+    private final long chunkBytes;
+
+    /**
+     * What an import read, and how fast.
+     *
+     * @param games  number of games read
+     * @param errors number of those games with a move that could not be read
+     * @param bytes  size of the file
+     */
+    public record Summary(long games, long errors, long bytes, long elapsedNanos) {
+        public double gamesPerSecond() {
+            return games / Math.max(elapsedNanos / 1e9, 1e-9);
+        }
+    }
+
+    public PgnImporter(ExecutorService executor) {
+        this(executor, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param executor   runs one task per chunk
+     * @param chunkBytes about how much of the file each task reads
+     */
+    public PgnImporter(ExecutorService executor, long chunkBytes) {
+        if(chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.executor = executor;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.err.println("Usage: PgnImporter file.pgn [--threads N]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(int i = 1; i < args.length; i++) {
+            if(args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Summary summary = new PgnImporter(executor).importFile(Path.of(args[0]), game -> { });
+            double seconds = summary.elapsedNanos() / 1e9;
+            System.out.printf("%,d games (%,d with errors) in %.2f s on %d threads: %,.0f games/sec, %.1f MB/s%n",
+                    summary.games(), summary.errors(), seconds, threads, summary.gamesPerSecond(),
+                    summary.bytes() / 1e6 / Math.max(seconds, 1e-9));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Reads every game of the file and hands each to the sink. Games of one
+     * chunk arrive in file order, but chunks are read at the same time, so the
+     * sink must be safe to call from several threads.
+     *
+     * @return How many games were read, and how fast
+     * @throws IOException if the file cannot be read
+     */
+    public Summary importFile(Path file, Consumer<PgnGame> sink) throws IOException {
+        long start = System.nanoTime();
+        LongAdder games = new LongAdder();
+        LongAdder errors = new LongAdder();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Future<?>> chunks = new ArrayList<>();
+            long chunkStart = 0;
+            while(chunkStart < size) {
+                long chunkEnd = chunkStart + chunkBytes >= size ? size : gameStart(channel, chunkStart + chunkBytes, size);
+                long from = chunkStart;
+                chunks.add(executor.submit(() -> {
+                    PgnReader reader = new PgnReader(new RangeChannel(channel, from, chunkEnd));
+                    while(reader.hasNext()) {
+                        PgnGame game = reader.next();
+                        games.increment();
+                        if(!game.isComplete()) {
+                            errors.increment();
+                        }
+                        sink.accept(game);
+                    }
+                }));
+                chunkStart = chunkEnd;
+            }
+            for(Future<?> chunk : chunks) {
+                await(chunk);
+            }
+            return new Summary(games.sum(), errors.sum(), size, System.nanoTime() - start);
+        }
+    }
+
+    private static void await(Future<?> chunk) throws IOException {
+        try {
+            chunk.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing", e);
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if(cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return Offset of the first {@code [Event } tag at the start of a line at
+     * or after the given offset, or the file size if there is none
+     */
+    static long gameStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        int matched = 0;
+        //Start one byte early, so a line break just before the offset counts.
+        long position = from - 1;
+        while(position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if(read <= 0) {
+                break;
+            }
+            for(int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if(b == GAME_START[matched]) {
+                    matched++;
+                    if(matched == GAME_START.length) {
+                        //Just past the line break
+                        return position + i - GAME_START.length + 2;
+                    }
+                } else {
+                    matched = b == GAME_START[0] ? 1 : 0;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reads part of a file through positional reads, leaving the channel's own
+     * position alone so that many ranges can be read at once.
+     */
+    private static final class RangeChannel implements ReadableByteChannel {
+        private final FileChannel file;
+        private final long end;
+        private long position;
+
+        RangeChannel(FileChannel file, long start, long end) {
+            this.file = file;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            if(position >= end) {
+                return -1;
+            }
+            int limit = destination.limit();
+            destination.limit((int) Math.min(limit, destination.position() + end - position));
+            try {
+                int read = file.read(destination, position);
+                if(read > 0) {
+                    position += read;
+                }
+                return read;
+            } finally {
+                destination.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() {
+
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMovesCalculator;
+import chess.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the games of a PGN file one at a time, as they are needed.
+ * <p>
+ * Input is read through a fixed-size buffer that is refilled as it runs out,
+ * so only the game being read is ever held in memory, however large the file.
+ * Moves are read as SAN and played on the game as they come, so every move
+ * kept is legal. Comments, variations, numeric annotation glyphs and escaped
+ * lines are skipped. Tag values are UTF-8; everything else is ASCII.
+ * <p>
+ * A game with a move that cannot be read is still returned, with its
+ * {@link PgnGame#error()} set and the moves before the bad one, and reading
+ * goes on with the next game.
+ */
+public final class PgnReader implements Iterator<PgnGame>, Closeable {
+    public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean endOfInput;
+    private final int[] legalMoves = new int[ChessMovesCalculator.MAX_MOVES];
+    private final Token token = new Token();
+    private PgnGame next;
+
+    public PgnReader(InputStream input) {
+        this(Channels.newChannel(input));
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * @param bufferBytes size of the read buffer; tokens may span refills, so any size works
+     */
+    public PgnReader(ReadableByteChannel channel, int bufferBytes) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferBytes);
+        buffer.limit(0);
+    }
+
+    /**
+     * @return A sequential stream of the input's games, which closes the input when closed
+     */
+    public static Stream<PgnGame> stream(InputStream input) {
+        PgnReader reader = new PgnReader(input);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+            try {
+                reader.close();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @throws UncheckedIOException if reading the input fails
+     */
+    @Override
+    public boolean hasNext() {
+        if(next == null) {
+            try {
+                next = readGame();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * @throws UncheckedIOException if reading the input fails
+     */
+    @Override
+    public PgnGame next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PgnGame game = next;
+        next = null;
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private PgnGame readGame() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int[] moves = new int[128];
+        int moveCount = 0;
+        ChessGame game = null;
+        String result = null;
+        String error = null;
+        boolean inMovetext = false;
+
+        gameLoop:
+        while(true) {
+            int c = peek();
+            if(c < 0) {
+                break;
+            }
+            switch(c) {
+                case ' ', '\t', '\r', '\n' -> read();
+                case '[' -> {
+                    //A tag after the moves starts the next game, whose result was left out.
+                    if(inMovetext) {
+                        break gameLoop;
+                    }
+                    readTag(tags);
+                }
+                case '{' -> skipPast('}');
+                case ';', '%' -> skipPast('\n');
+                case '(' -> skipVariation();
+                case ')' -> read();
+                case '$' -> {
+                    read();
+                    while(peek() >= '0' && peek() <= '9') {
+                        read();
+                    }
+                }
+                case '*' -> {
+                    read();
+                    result = "*";
+                    break gameLoop;
+                }
+                default -> {
+                    inMovetext = true;
+                    readToken();
+                    if(token.isResult()) {
+                        result = token.toString();
+                        break gameLoop;
+                    }
+                    int start = token.moveStart();
+                    if(start == token.length() || error != null) {
+                        continue;
+                    }
+                    if(game == null) {
+                        try {
+                            game = startPosition(tags);
+                        } catch(IllegalArgumentException e) {
+                            //The rest of the moves are skipped, as after a bad move
+                            game = new ChessGame();
+                            error = e.getMessage();
+                            continue;
+                        }
+                    }
+                    try {
+                        int move = San.parse(game, token, start, token.length(), legalMoves);
+                        game.makeMove(move);
+                        if(moveCount == moves.length) {
+                            moves = Arrays.copyOf(moves, moveCount * 2);
+                        }
+                        moves[moveCount++] = move;
+                    } catch(IllegalArgumentException e) {
+                        error = "Move " + (moveCount / 2 + 1) + ": " + e.getMessage();
+                    }
+                }
+            }
+        }
+
+        if(tags.isEmpty() && !inMovetext && result == null) {
+            return null;
+        }
+        if(game == null) {
+            try {
+                game = startPosition(tags);
+            } catch(IllegalArgumentException e) {
+                game = new ChessGame();
+                error = e.getMessage();
+            }
+        }
+        return new PgnGame(tags, Arrays.copyOf(moves, moveCount), game, result == null ? "*" : result, error);
+    }
+
+    /**
+     * @return The game's start position: the FEN tag if there is one, otherwise the usual start
+     */
+    private static ChessGame startPosition(Map<String, String> tags) {
+        String fen = tags.get("FEN");
+        return fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipSpaces();
+        token.clear();
+        int c;
+        while((c = peek()) >= 0 && c != '"' && c != ']' && !isSpace(c)) {
+            token.append(read());
+        }
+        String name = token.toString();
+        skipSpaces();
+        token.clear();
+        if(peek() == '"') {
+            read();
+            while((c = read()) >= 0 && c != '"') {
+                token.append(c == '\\' ? read() : c);
+            }
+        }
+        skipPast(']');
+        tags.put(name, token.utf8());
+    }
+
+    /**
+     * Reads the next move, move number or result, which ends at a space or at
+     * the start of a comment, variation or tag.
+     */
+    private void readToken() throws IOException {
+        token.clear();
+        int c;
+        while((c = peek()) >= 0 && !isSpace(c) && c != '{' && c != '(' && c != ')' && c != '[' && c != ';' && c != '$') {
+            token.append(read());
+        }
+        if(token.length() == 0) {
+            //A stray character that cannot start anything, such as '}'
+            read();
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while((c = read()) >= 0) {
+            if(c == '(') {
+                depth++;
+            } else if(c == ')' && --depth == 0) {
+                return;
+            } else if(c == '{') {
+                skipPast('}');
+            } else if(c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while(c >= 0 && c != end);
+    }
+
+    private void skipSpaces() throws IOException {
+        while(isSpace(peek())) {
+            read();
+        }
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * @return The next byte without consuming it, or -1 at the end of the input
+     */
+    private int peek() throws IOException {
+        if(!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /**
+     * @return The next byte, or -1 at the end of the input
+     */
+    private int read() throws IOException {
+        if(!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if(endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while(read == 0);
+        buffer.flip();
+        if(read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The bytes of the token being read, reused for every token and read as
+     * text in place.
+     */
+    private static final class Token implements CharSequence {
+        private byte[] bytes = new byte[32];
+        private int length;
+
+        void clear() {
+            length = 0;
+        }
+
+        void append(int c) {
+            if(c < 0) {
+                return;
+            }
+            if(length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = (byte) c;
+        }
+
+        boolean isResult() {
+            return equalsText("1-0") || equalsText("0-1") || equalsText("1/2-1/2");
+        }
+
+        /**
+         * Skips a leading move number, like the {@code 12.} of {@code 12.Nf3} or
+         * the {@code 12...} before a black move. Castling written with zeros is not a number.
+         *
+         * @return Index where the move starts, or the length if there is none
+         */
+        int moveStart() {
+            if(length >= 3 && bytes[0] == '0' && bytes[1] == '-') {
+                return 0;
+            }
+            int index = 0;
+            while(index < length && bytes[index] >= '0' && bytes[index] <= '9') {
+                index++;
+            }
+            if(index == 0) {
+                return 0;
+            }
+            while(index < length && bytes[index] == '.') {
+                index++;
+            }
+            return index;
+        }
+
+        String utf8() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private boolean equalsText(String text) {
+            if(length != text.length()) {
+                return false;
+            }
+            for(int i = 0; i < length; i++) {
+                if(bytes[i] != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AttackMapTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Maps Match Square By Square Attack Tests")
+    public void matchesSquareTests() {
+        for(ChessGame game : positionsNearKiwipete()) {
+            for(int color = 0; color < 2; color++) {
+                //The other king is lifted off the board, so squares behind it count as attacked.
+                ChessBoard lifted = new ChessBoard(game.getBoard());
+                long king = lifted.pieceBitboards[(1 - color) * 6 + ChessPiece.PieceType.KING.ordinal()];
+                if(king != 0) {
+                    lifted.removePiece(Long.numberOfTrailingZeros(king));
+                }
+                long map = AttackMap.compute(game.getBoard(), color);
+                for(int square = 0; square < 64; square++) {
+                    Assertions.assertEquals(ChessMovesCalculator.isSquareAttacked(lifted, square, color),
+                            (map & (1L << square)) != 0, game.toFen() + " square " + square);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Cached Status Matches Fresh Games")
+    public void matchesFreshGames() {
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        for(ChessGame game : positionsNearKiwipete()) {
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            //Ask twice so the second answers come from the cache.
+            for(int pass = 0; pass < 2; pass++) {
+                ChessGame fresh = ChessGame.fromFen(game.toFen());
+                Assertions.assertEquals(fresh.isInCheck(turn), game.isInCheck(turn));
+                Assertions.assertEquals(fresh.isInCheckmate(turn), game.isInCheckmate(turn));
+                Assertions.assertEquals(fresh.isInStalemate(turn), game.isInStalemate(turn));
+            }
+
+            Set<Integer> expected = new HashSet<>();
+            int count = game.legalMoves(moves);
+            for(int i = 0; i < count; i++) {
+                expected.add(moves[i] & PackedMove.MOVE_MASK);
+            }
+            Set<Integer> valid = new HashSet<>();
+            for(int square = 0; square < 64; square++) {
+                int piece = game.getBoard().pieceAt(square);
+                if(piece == ChessBoard.NO_PIECE || ChessBoard.colorOf(piece) != turn.ordinal()) {
+                    continue;
+                }
+                for(ChessMove move : game.validMoves(ChessPosition.of((square >>> 3) + 1, (square & 7) + 1))) {
+                    valid.add(PackedMove.fromChessMove(move));
+                }
+            }
+            Assertions.assertEquals(expected, valid, game.toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves And Board Edits Drop The Cache")
+    public void invalidation() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+        //Five king steps and both castles
+        Assertions.assertEquals(7, game.validMoves(ChessPosition.of(1, 5)).size());
+
+        game.makeMove(Uci.parse("a1a8"));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(3, game.validMoves(ChessPosition.of(8, 5)).size());
+        game.unmakeMove();
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+
+        //Edits straight on the board, which the game does not hear about
+        game.getBoard().addPiece(ChessPosition.of(7, 4),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        game.getBoard().addPiece(ChessPosition.of(7, 4), null);
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+
+        //Castling rights are not on the board, but they change the king's moves.
+        Collection<ChessMove> withRights = game.validMoves(ChessPosition.of(1, 5));
+        Assertions.assertEquals(7, withRights.size());
+        game.makeMove(Uci.parse("h1h2"));
+        game.makeMove(Uci.parse("e8d8"));
+        game.makeMove(Uci.parse("h2h1"));
+        game.makeMove(Uci.parse("d8e8"));
+        Assertions.assertEquals(6, game.validMoves(ChessPosition.of(1, 5)).size());
+    }
+
+    @Test
+    @DisplayName("Mate And Stalemate Queries Agree")
+    public void status() {
+        ChessGame mate = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        for(int i = 0; i < 3; i++) {
+            Assertions.assertTrue(mate.isInCheck(ChessGame.TeamColor.BLACK));
+            Assertions.assertTrue(mate.isInCheckmate(ChessGame.TeamColor.BLACK));
+            Assertions.assertFalse(mate.isInStalemate(ChessGame.TeamColor.BLACK));
+            Assertions.assertTrue(mate.validMoves(ChessPosition.of(8, 7)).isEmpty());
+        }
+        Assertions.assertFalse(mate.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        ChessGame stalemate = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        Assertions.assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(stalemate.isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(new ChessGame(stalemate).isInCheck(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Games On Separate Threads Keep Separate Caches")
+    public void separateThreads() throws InterruptedException, ExecutionException {
+        List<ChessGame> positions = positionsNearKiwipete();
+        List<String> expected = new ArrayList<>();
+        for(ChessGame game : positions) {
+            expected.add(statusOf(ChessGame.fromFen(game.toFen())));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            //Each thread walks its own copies, in opposite orders, answering from its own caches.
+            List<Future<List<String>>> results = new ArrayList<>();
+            for(int thread = 0; thread < 2; thread++) {
+                boolean reversed = thread == 1;
+                results.add(pool.submit(() -> {
+                    List<String> seen = new ArrayList<>();
+                    for(int i = 0; i < positions.size(); i++) {
+                        int index = reversed ? positions.size() - 1 - i : i;
+                        ChessGame game = new ChessGame(positions.get(index));
+                        statusOf(game);
+                        seen.add(statusOf(game));
+                    }
+                    return seen;
+                }));
+            }
+            Assertions.assertEquals(expected, results.get(0).get());
+            List<String> reversed = new ArrayList<>(results.get(1).get());
+            Collections.reverse(reversed);
+            Assertions.assertEquals(expected, reversed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String statusOf(ChessGame game) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int moves = 0;
+        for(int square = 0; square < 64; square++) {
+            int piece = game.getBoard().pieceAt(square);
+            if(piece != ChessBoard.NO_PIECE && ChessBoard.colorOf(piece) == turn.ordinal()) {
+                moves += game.validMoves(ChessPosition.of((square >>> 3) + 1, (square & 7) + 1)).size();
+            }
+        }
+        return game.isInCheck(turn) + " " + game.isInCheckmate(turn) + " " + game.isInStalemate(turn) + " " + moves;
+    }
+
+    private static List<ChessGame> positionsNearKiwipete() {
+        List<ChessGame> games = new ArrayList<>();
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        games.add(new ChessGame(game));
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        int[] replies = new int[ChessMovesCalculator.MAX_MOVES];
+        int count = game.legalMoves(moves);
+        for(int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            games.add(new ChessGame(game));
+            int replyCount = game.legalMoves(replies);
+            for(int j = 0; j < replyCount; j++) {
+                game.makeMove(replies[j]);
+                games.add(new ChessGame(game));
+                game.unmakeMove();
+            }
+            game.unmakeMove();
+        }
+        return games;
+    }
+}
@@ -0,0 +1,113 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawRuleTests {
+    private static final String[] KNIGHT_SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8"};
+
+    @Test
+    @DisplayName("Threefold Repetition After Knight Shuffles")
+    public void threefold() {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertTrue(game.isThreefoldRepetition());
+
+        game.unmakeMove();
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        play(game, "f6g8");
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Position Must Recur With The Same Side To Move")
+    public void sideToMove() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        //The rook takes three moves to come back and the king two, so the start board
+        //recurs with black to move halfway through each twelve-ply cycle.
+        String[] cycle = {"a1a2", "e8d8", "a2a3", "d8e8", "a3a1", "e8d8", "a1a2", "d8e8", "a2a3", "e8d8", "a3a1", "d8e8"};
+        play(game, cycle);
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        for(int i = 0; i < 5; i++) {
+            play(game, cycle[i]);
+        }
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        for(int i = 5; i < cycle.length; i++) {
+            play(game, cycle[i]);
+        }
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Lost Castling Rights Make A New Position")
+    public void castlingRights() {
+        ChessGame game = ChessGame.fromFen("r3k3/8/8/8/8/8/8/4K2R w Kq - 0 1");
+        play(game, "h1h2", "a8a7", "h2h1", "a7a8");
+        play(game, "h1h2", "a8a7", "h2h1", "a7a8");
+        //The rooks have moved, so the start position with castling rights came only once.
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        play(game, "h1h2", "a8a7", "h2h1", "a7a8");
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Repetitions Count From The Last Pawn Move")
+    public void irreversibleMove() {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, KNIGHT_SHUFFLE);
+        play(game, "e2e4", "e7e5");
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Takebacks Past The Recorded Positions")
+    public void longGame() {
+        ChessGame game = new ChessGame();
+        play(game, "e2e4", "e7e5");
+        //Walk the kings out and back for more plies than the position ring holds.
+        for(int i = 0; i < 40; i++) {
+            play(game, "e1e2", "e8e7", "e2e1", "e7e8");
+        }
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertEquals(160, game.getHalfmoveClock());
+
+        //The positions before the takeback point were overwritten, so counting starts over from there.
+        for(int i = 0; i < 148; i++) {
+            game.unmakeMove();
+        }
+        Assertions.assertEquals(12, game.getHalfmoveClock());
+        play(game, "e1e2", "e8e7", "e2e1", "e7e8");
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        play(game, "e1e2", "e8e7", "e2e1", "e7e8");
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertTrue(new ChessGame(game).isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoves() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 98 80");
+        Assertions.assertFalse(game.isFiftyMoveDraw());
+        play(game, "a1a2", "e8d8");
+        Assertions.assertTrue(game.isFiftyMoveDraw());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        game.unmakeMove();
+        Assertions.assertFalse(game.isFiftyMoveDraw());
+
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 100 80").isFiftyMoveDraw());
+        Assertions.assertFalse(ChessGame.fromFen("R3k3/8/4K3/8/8/8/8/8 b - - 100 80").isFiftyMoveDraw());
+    }
+
+    private static void play(ChessGame game, String... moves) {
+        for(String move : moves) {
+            game.makeMove(Uci.parse(game, move));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class FenTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Start Position Round Trip")
+    public void startPosition() {
+        ChessGame game = ChessGame.fromFen(START);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(new ChessGame().zobristKey(), game.zobristKey());
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(START, game.toFen());
+    }
+
+    @Test
+    @DisplayName("Move Counters And En Passant Follow Moves")
+    public void countersAndEnPassant() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        ChessGame parsed = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(game, parsed);
+        Assertions.assertEquals(2, parsed.getHalfmoveClock());
+        Assertions.assertEquals(2, parsed.getFullmoveNumber());
+        game.unmakeMove();
+        game.unmakeMove();
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Parsed Positions Match Published Perft Counts")
+    public void perft() {
+        Assertions.assertEquals(97862, ChessGame.fromFen(KIWIPETE).perft(3));
+        //Only black may castle, and white's king is already castled.
+        ChessGame position4 = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        Assertions.assertEquals(9467, position4.perft(3));
+        ChessGame position5 = ChessGame.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        Assertions.assertEquals(62379, position5.perft(3));
+        Assertions.assertEquals(8, position5.getFullmoveNumber());
+        Assertions.assertEquals("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", position5.toFen());
+    }
+
+    @Test
+    @DisplayName("Counters Are Optional")
+    public void optionalCounters() {
+        ChessGame game = ChessGame.fromFen("  8/8/8/8/8/8/8/K6k b - -\n");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals("8/8/8/8/8/8/8/K6k b - - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Castling Rights Without King And Rook Are Dropped")
+    public void impossibleCastling() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w KQkq - 0 1");
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R w K - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Reads A Byte Buffer Slice In Place")
+    public void byteBufferSlice() {
+        byte[] file = (START + "\n" + KIWIPETE + "\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.wrap(file, START.length() + 1, KIWIPETE.length());
+        ChessGame game = ChessGame.fromFen(buffer);
+        Assertions.assertEquals(KIWIPETE, game.toFen());
+        Assertions.assertEquals(START.length() + 1, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed Text")
+    public void malformed() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQ - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 1",
+                "rnbqkbnr/ppp1pppp/8/8/3p4/8/PPPPPPPP/RNBQKBNR b KQkq d3 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+        };
+        for(String fen : invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+public class GameCodecTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Position Round Trip")
+    public void positionRoundTrip() {
+        for(String fen : new String[]{
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                KIWIPETE,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 37 301"}) {
+            ByteBuffer buffer = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+            GameCodec.encodePosition(ChessGame.fromFen(fen), buffer);
+            Assertions.assertFalse(buffer.hasRemaining());
+            buffer.flip();
+            ChessGame decoded = GameCodec.decodePosition(buffer);
+            Assertions.assertEquals(fen, decoded.toFen());
+            Assertions.assertEquals(ChessGame.fromFen(fen).zobristKey(), decoded.zobristKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Game Round Trip Keeps Move History")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        int[][] moves = {{2, 5, 4, 5}, {7, 4, 5, 4}, {4, 5, 5, 4}, {7, 3, 5, 3}, {5, 4, 6, 3}, {8, 7, 6, 6}};
+        for(int[] move : moves) {
+            game.makeMove(new ChessMove(new ChessPosition(move[0], move[1]), new ChessPosition(move[2], move[3]), null));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.encodedSize(game));
+        Assertions.assertEquals(GameCodec.POSITION_BYTES + 2 + 2 * moves.length, GameCodec.encode(game, buffer));
+        buffer.flip();
+
+        ChessGame decoded = GameCodec.decode(buffer);
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        //The en passant capture has to be restored with its flag to be taken back correctly.
+        for(int i = 0; i < moves.length; i++) {
+            decoded.unmakeMove();
+        }
+        Assertions.assertEquals(new ChessGame().toFen(), decoded.toFen());
+    }
+
+    @Test
+    @DisplayName("Reuses One Buffer For Many Games")
+    public void pooledBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * GameCodec.POSITION_BYTES);
+        ChessGame start = new ChessGame();
+        ChessGame kiwipete = ChessGame.fromFen(KIWIPETE);
+        buffer.position(7);
+        GameCodec.encodePosition(start, buffer);
+        GameCodec.encodePosition(kiwipete, buffer);
+        buffer.flip().position(7);
+        Assertions.assertEquals(start, GameCodec.decodePosition(buffer));
+        Assertions.assertEquals(kiwipete, GameCodec.decodePosition(buffer));
+        Assertions.assertEquals(7 + 2 * GameCodec.POSITION_BYTES, buffer.position());
+
+        buffer.clear().position(buffer.capacity() - GameCodec.POSITION_BYTES + 1);
+        Assertions.assertThrows(BufferOverflowException.class, () -> GameCodec.encodePosition(start, buffer));
+    }
+
+    @Test
+    @DisplayName("Moves In Sixteen Bits")
+    public void moves() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+        ChessMove quiet = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        Assertions.assertEquals(promotion, GameCodec.decodeMove(GameCodec.encodeMove(promotion)));
+        Assertions.assertEquals(quiet, GameCodec.decodeMove(GameCodec.encodeMove(quiet)));
+        int castle = PackedMove.encode(4, 6, 0, PackedMove.FLAG_CASTLE);
+        Assertions.assertEquals(GameCodec.encodeMove(PackedMove.encode(4, 6, 0, 0)), GameCodec.encodeMove(castle));
+    }
+
+    @Test
+    @DisplayName("Rejects Corrupt Data")
+    public void corrupt() {
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.POSITION_BYTES + 4);
+        GameCodec.encodePosition(new ChessGame(), buffer);
+        buffer.putShort((short) 1).putShort(GameCodec.encodeMove(PackedMove.encode(12, 36, 0, 0)));
+        buffer.flip();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(buffer));
+
+        buffer.clear();
+        buffer.put(0, (byte) 0xDD);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decodePosition(buffer));
+
+        //An empty board, and one with the white king doubled onto a1
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decodePosition(ByteBuffer.allocate(GameCodec.POSITION_BYTES)));
+        buffer.clear();
+        GameCodec.encodePosition(new ChessGame(), buffer);
+        buffer.put(0, (byte) (buffer.get(0) & 0xF0 | buffer.get(2) & 15));
+        buffer.flip();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decodePosition(buffer));
+    }
+
+    @Test
+    @DisplayName("Checks En Passant Like FEN")
+    public void enPassantMatchesFen() {
+        String placement = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq ";
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+        GameCodec.encodePosition(ChessGame.fromFen(placement + "- 0 3"), buffer);
+        //d6 and f6 are behind black pawns on d5 and f5; c6 is behind nothing, e6 behind a
+        //white pawn, and f3 is on the wrong rank for white to move.
+        String[] squares = {"d6", "f6", "c6", "e6", "f3"};
+        boolean[] valid = {true, true, false, false, false};
+        for(int i = 0; i < squares.length; i++) {
+            String fen = placement + squares[i] + " 0 3";
+            int square = (squares[i].charAt(1) - '1') * 8 + (squares[i].charAt(0) - 'a');
+            buffer.put(33, (byte) (square + 1));
+            buffer.rewind();
+            if(valid[i]) {
+                Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+                Assertions.assertEquals(fen, GameCodec.decodePosition(buffer).toFen());
+            } else {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+                Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decodePosition(buffer), fen);
+            }
+        }
+    }
+}
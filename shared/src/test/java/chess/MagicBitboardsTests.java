@@ -0,0 +1,44 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class MagicBitboardsTests {
+
+    @Test
+    @DisplayName("Magic Lookups Match Ray Walking")
+    public void lookupsMatchRayWalking() {
+        Random random = new Random(240);
+        for(int square = 0; square < 64; square++) {
+            for(int i = 0; i < 500; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                Assertions.assertEquals(
+                        MagicBitboards.slidingAttacks(square, occupied, MagicBitboards.ROOK_DIRECTIONS),
+                        MagicBitboards.rookAttacks(square, occupied),
+                        "Wrong rook attacks from square " + square);
+                Assertions.assertEquals(
+                        MagicBitboards.slidingAttacks(square, occupied, MagicBitboards.BISHOP_DIRECTIONS),
+                        MagicBitboards.bishopAttacks(square, occupied),
+                        "Wrong bishop attacks from square " + square);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Colliding Magic Is Rejected")
+    public void collidingMagicRejected() {
+        //A zero magic sends every blocker set to slot 0.
+        Assertions.assertThrows(IllegalStateException.class, () -> MagicBitboards.initSquare(0,
+                MagicBitboards.ROOK_DIRECTIONS, new long[64], 0L, new int[64], new long[64][]));
+    }
+
+    @Test
+    @DisplayName("Initialization Time Is Recorded")
+    public void initializationTimeRecorded() {
+        Assertions.assertTrue(MagicBitboards.initializationNanos() > 0,
+                "Table initialization time was not measured");
+    }
+}
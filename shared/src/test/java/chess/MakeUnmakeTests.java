@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class MakeUnmakeTests {
+
+    @Test
+    @DisplayName("Unmake Restores Start Position Tree")
+    public void restoresStartPosition() throws InvalidMoveException {
+        assertTreeRestores(new ChessGame(), 3);
+    }
+
+    @Test
+    @DisplayName("Unmake Restores Castling, En Passant And Promotions")
+    public void restoresSpecialMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |P|p|p| | |p|p|p|
+                | | | | | | | | |
+                | | | |p|P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |p|P|P| | |P|P|P|
+                |R| | | |K| | |R|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 6), ChessPosition.of(5, 6), null));
+        assertTreeRestores(game, 2);
+    }
+
+    private static void assertTreeRestores(ChessGame game, int depth) throws InvalidMoveException {
+        if(depth == 0) {
+            return;
+        }
+        ChessBoard before = new ChessBoard(game.getBoard());
+        long key = game.zobristKey();
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int halfmoveClock = game.getHalfmoveClock();
+
+        for(int row = 1; row <= 8; row++) {
+            for(int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if(piece == null || piece.getTeamColor() != turn) {
+                    continue;
+                }
+                for(ChessMove move : game.validMoves(ChessPosition.of(row, col))) {
+                    game.makeMove(move);
+                    assertTreeRestores(game, depth - 1);
+                    game.unmakeMove();
+
+                    Assertions.assertEquals(before, game.getBoard(), "Board not restored after " + move);
+                    Assertions.assertEquals(key, game.zobristKey(), "Key not restored after " + move);
+                    Assertions.assertEquals(turn, game.getTeamTurn(), "Turn not restored after " + move);
+                    Assertions.assertEquals(halfmoveClock, game.getHalfmoveClock());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NotationTests {
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/7k/8/8/8/Q7/8/Q1Q4K w - - 0 1",
+    };
+
+    @Test
+    @DisplayName("SAN Round Trip Of Every Legal Move")
+    public void sanRoundTrip() {
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        for(String fen : POSITIONS) {
+            ChessGame game = ChessGame.fromFen(fen);
+            int count = game.legalMoves(moves);
+            for(int i = 0; i < count; i++) {
+                String san = San.format(game, moves[i]);
+                Assertions.assertEquals(moves[i], San.parse(game, san), fen + " " + san);
+            }
+            Assertions.assertEquals(fen, game.toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("SAN Of Special Moves")
+    public void sanSpecialMoves() throws InvalidMoveException {
+        ChessGame kiwipete = ChessGame.fromFen(POSITIONS[1]);
+        Assertions.assertEquals("O-O", San.format(kiwipete, move("e1g1")));
+        Assertions.assertEquals("O-O-O", San.format(kiwipete, move("e1c1")));
+        Assertions.assertEquals("Nxf7", San.format(kiwipete, move("e5f7")));
+        Assertions.assertEquals("Qxh3", San.format(kiwipete, move("f3h3")));
+        Assertions.assertEquals("Bxa6", San.format(kiwipete, move("e2a6")));
+        Assertions.assertEquals("dxe6", San.format(kiwipete, move("d5e6")));
+
+        //Queens on a1, a3 and c1 all reach b2: a1 shares a file with one and a rank with the other.
+        ChessGame queens = ChessGame.fromFen(POSITIONS[5]);
+        Assertions.assertEquals("Qa1b2", San.format(queens, move("a1b2")));
+        Assertions.assertEquals("Q3b2", San.format(queens, move("a3b2")));
+        Assertions.assertEquals("Qcb2", San.format(queens, move("c1b2")));
+        Assertions.assertEquals("Qh3+", San.format(queens, move("a3h3")));
+        Assertions.assertEquals(move("a1b2"), PackedMove.fromChessMove(PackedMove.toChessMove(San.parse(queens, "Qa1b2"))));
+
+        ChessGame promotion = ChessGame.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1");
+        Assertions.assertEquals("e8=Q#", San.format(promotion, move("e7e8q")));
+        Assertions.assertEquals("e8=N", San.format(promotion, move("e7e8n")));
+
+        ChessGame enPassant = new ChessGame();
+        enPassant.makeMove(Uci.parse("e2e4"));
+        enPassant.makeMove(Uci.parse("a7a6"));
+        enPassant.makeMove(Uci.parse("e4e5"));
+        enPassant.makeMove(Uci.parse("d7d5"));
+        Assertions.assertEquals("exd6", San.format(enPassant, move("e5d6")));
+        Assertions.assertTrue(PackedMove.hasFlag(San.parse(enPassant, "exd6"), PackedMove.FLAG_EN_PASSANT));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.format(enPassant, move("e5e7")));
+    }
+
+    @Test
+    @DisplayName("UCI Round Trip")
+    public void uci() {
+        Assertions.assertEquals("e2e4", Uci.format(Uci.parse("e2e4")));
+        Assertions.assertEquals("b7a8n", Uci.format(Uci.parse("b7a8n")));
+        Assertions.assertSame(Uci.format(move("g1f3")), Uci.format(move("g1f3")));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5), ChessPiece.PieceType.QUEEN),
+                Uci.parse("e7e8q"));
+
+        ChessGame kiwipete = ChessGame.fromFen(POSITIONS[1]);
+        Assertions.assertTrue(PackedMove.hasFlag(Uci.parse(kiwipete, "e1g1"), PackedMove.FLAG_CASTLE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Uci.parse(kiwipete, "e1e3"));
+        for(String invalid : new String[]{"", "e2", "e2e9", "i2e4", "e7e8k", "e7e8qq", "0000"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Uci.parse(invalid), invalid);
+        }
+    }
+
+    @Test
+    @DisplayName("Move Text Keeps Its Format")
+    public void moveToString() {
+        Assertions.assertEquals("[2,5][4,5]", Uci.parse("e2e4").toString());
+    }
+
+    private static int move(String uci) {
+        return PackedMove.fromChessMove(Uci.parse(uci));
+    }
+}
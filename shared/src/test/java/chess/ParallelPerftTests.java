@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The parallel perft must reproduce the sequential counts exactly, with and
+ * without the shared subtree cache.
+ */
+public class ParallelPerftTests {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Start Position")
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(4865609, new ParallelPerft(pool, null).perft(game, 5));
+        Assertions.assertEquals(4865609, new ParallelPerft(pool, new PerftCache(16)).perft(game, 5));
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    public void kiwipete() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        Assertions.assertEquals(4085603, new ParallelPerft(pool, null).perft(game, 4));
+        Assertions.assertEquals(4085603, new ParallelPerft(pool, new PerftCache(16)).perft(game, 4));
+    }
+
+    @Test
+    @DisplayName("Shallow Depths")
+    public void shallowDepths() {
+        ChessGame game = new ChessGame();
+        ParallelPerft perft = new ParallelPerft(pool, new PerftCache(1));
+        for(int depth = 0; depth <= 4; depth++) {
+            Assertions.assertEquals(game.perft(depth), perft.perft(game, depth));
+        }
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+}
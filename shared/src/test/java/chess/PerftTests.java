@@ -0,0 +1,129 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * Node counts for the standard perft positions, as published on the Chess
+ * Programming Wiki. Castling rights are inferred from piece placement, which
+ * matches every position used here.
+ */
+public class PerftTests {
+
+    @Test
+    @DisplayName("Start Position")
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(20, game.perft(1));
+        Assertions.assertEquals(400, game.perft(2));
+        Assertions.assertEquals(8902, game.perft(3));
+        Assertions.assertEquals(197281, game.perft(4));
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    public void kiwipete() {
+        ChessGame game = TestGames.fromBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(48, game.perft(1));
+        Assertions.assertEquals(2039, game.perft(2));
+        Assertions.assertEquals(97862, game.perft(3));
+    }
+
+    @Test
+    @DisplayName("Position 3: Rook Endgame With En Passant Pins")
+    public void position3() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(14, game.perft(1));
+        Assertions.assertEquals(191, game.perft(2));
+        Assertions.assertEquals(2812, game.perft(3));
+        Assertions.assertEquals(43238, game.perft(4));
+        Assertions.assertEquals(674624, game.perft(5));
+    }
+
+    @Test
+    @DisplayName("Position 4: Promotions And Castling Under Attack")
+    public void position4() {
+        ChessGame game = TestGames.fromBoard("""
+                |r| | | |k| | |r|
+                |P|p|p|p| |p|p|p|
+                | |b| | | |n|b|N|
+                |n|P| | | | | | |
+                |B|B|P| |P| | | |
+                |q| | | | |N| | |
+                |P|p| |P| | |P|P|
+                |R| | |Q| |R|K| |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(6, game.perft(1));
+        Assertions.assertEquals(264, game.perft(2));
+        Assertions.assertEquals(9467, game.perft(3));
+        Assertions.assertEquals(422333, game.perft(4));
+    }
+
+    @Test
+    @DisplayName("Position 5")
+    public void position5() {
+        ChessGame game = TestGames.fromBoard("""
+                |r|n|b|q| |k| |r|
+                |p|p| |P|b|p|p|p|
+                | | |p| | | | | |
+                | | | | | | | | |
+                | | |B| | | | | |
+                | | | | | | | | |
+                |P|P|P| |N|n|P|P|
+                |R|N|B|Q|K| | |R|
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(44, game.perft(1));
+        Assertions.assertEquals(1486, game.perft(2));
+        Assertions.assertEquals(62379, game.perft(3));
+    }
+
+    @Test
+    @DisplayName("Position 6")
+    public void position6() {
+        ChessGame game = TestGames.fromBoard("""
+                |r| | | | |r|k| |
+                | |p|p| |q|p|p|p|
+                |p| |n|p| |n| | |
+                | | |b| |p| |B| |
+                | | |B| |P| |b| |
+                |P| |N|P| |N| | |
+                | |P|P| |Q|P|P|P|
+                |R| | | | |R|K| |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(46, game.perft(1));
+        Assertions.assertEquals(2079, game.perft(2));
+        Assertions.assertEquals(89890, game.perft(3));
+    }
+
+    @Test
+    @DisplayName("Divide Sums To Perft")
+    public void divideSumsToPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> divide = game.perftDivide(3);
+        Assertions.assertEquals(20, divide.size());
+        Assertions.assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(600, divide.get(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null)));
+        Assertions.assertEquals(new ChessGame(), game, "Divide left the game changed");
+    }
+}
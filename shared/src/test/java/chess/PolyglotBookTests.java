@@ -0,0 +1,182 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Reads books written with a seeded stand-in for the Random64 table, which
+ * exercises the file format, the lookup and the move decoding the same way
+ * the standard table does. The standard table itself is checked against the
+ * example keys of the Polyglot book format specification.
+ */
+public class PolyglotBookTests {
+    @TempDir
+    Path directory;
+
+    private PolyglotKeys keys;
+
+    @BeforeEach
+    public void createKeys() {
+        SplittableRandom random = new SplittableRandom(781);
+        long[] numbers = new long[PolyglotKeys.KEY_COUNT];
+        for(int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextLong();
+        }
+        keys = new PolyglotKeys(numbers);
+    }
+
+    @Test
+    @DisplayName("Moves For Start Position")
+    public void startPositionMoves() throws IOException {
+        ChessGame game = new ChessGame();
+        long key = keys.key(game);
+        PolyglotBook book = writeBook(new long[][]{
+                {key, bookMove(2, 5, 4, 5, 0), 10},
+                {key, bookMove(2, 4, 4, 4, 0), 25},
+                //Not legal in the start position, so never returned
+                {key, bookMove(2, 5, 5, 5, 0), 100},
+                {key ^ 1, bookMove(2, 3, 4, 3, 0), 5},
+                {key + 1, bookMove(1, 2, 3, 3, 0), 5},
+        });
+
+        Assertions.assertEquals(5, book.size());
+        List<PolyglotBook.BookMove> moves = book.moves(game);
+        Assertions.assertEquals(List.of(
+                new PolyglotBook.BookMove(move(2, 4, 4, 4, null), 25),
+                new PolyglotBook.BookMove(move(2, 5, 4, 5, null), 10)), moves);
+        ChessMove picked = book.pickMove(game, new SplittableRandom(1));
+        Assertions.assertTrue(picked.equals(move(2, 4, 4, 4, null)) || picked.equals(move(2, 5, 4, 5, null)));
+    }
+
+    @Test
+    @DisplayName("Position Not In Book")
+    public void positionNotInBook() throws IOException {
+        ChessGame game = new ChessGame();
+        PolyglotBook book = writeBook(new long[][]{{keys.key(game), bookMove(2, 5, 4, 5, 0), 1}});
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(book.moves(game).isEmpty());
+        Assertions.assertNull(book.pickMove(game, new SplittableRandom(1)));
+    }
+
+    @Test
+    @DisplayName("Castling And Promotion Decoding")
+    public void castlingAndPromotion() throws IOException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | |R|
+                """));
+        long key = keys.key(game);
+        PolyglotBook book = writeBook(new long[][]{
+                {key, bookMove(1, 5, 1, 8, 0), 3},
+                {key, bookMove(1, 5, 1, 1, 0), 2},
+                {key, bookMove(7, 2, 8, 2, 1), 1},
+        });
+        Assertions.assertEquals(List.of(
+                new PolyglotBook.BookMove(move(1, 5, 1, 7, null), 3),
+                new PolyglotBook.BookMove(move(1, 5, 1, 3, null), 2),
+                new PolyglotBook.BookMove(move(7, 2, 8, 2, ChessPiece.PieceType.KNIGHT), 1)), book.moves(game));
+    }
+
+    @Test
+    @DisplayName("En Passant File Only Counts When Capturable")
+    public void enPassantKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5, null));
+        ChessGame sameBoard = new ChessGame();
+        sameBoard.setBoard(new ChessBoard(game.getBoard()));
+        sameBoard.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(keys.key(sameBoard), keys.key(game));
+        Assertions.assertNotEquals(keys.key(new ChessGame()), keys.key(game));
+    }
+
+    @Test
+    @DisplayName("Standard Keys Match Published Values")
+    public void standardKeys() {
+        PolyglotKeys standard = PolyglotKeys.standard();
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0x463b96181691fc9cL, standard.key(game));
+
+        String[] moves = {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"};
+        long[] keys = {0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L,
+                0x22a48b5a8e47ff78L, 0x652a607ca3f242c1L, 0x00fdd303c946bdd9L};
+        for(int i = 0; i < moves.length; i++) {
+            game.makeMove(Uci.parse(game, moves[i]));
+            Assertions.assertEquals(keys[i], standard.key(game), moves[i]);
+        }
+
+        //An en passant square on the c file with a black pawn beside it, then castling rights lost by a rook move
+        game = new ChessGame();
+        for(String move : new String[]{"a2a4", "b7b5", "h2h4", "b5b4", "c2c4"}) {
+            game.makeMove(Uci.parse(game, move));
+        }
+        Assertions.assertEquals(0x3c8123ea7b067637L, standard.key(game));
+        game.makeMove(Uci.parse(game, "b4c3"));
+        game.makeMove(Uci.parse(game, "a1a3"));
+        Assertions.assertEquals(0x5c3f9b829b279560L, standard.key(game));
+    }
+
+    @Test
+    @DisplayName("Opens Book With Standard Keys")
+    public void standardBook() throws IOException {
+        Path path = writeBookFile(new long[][]{{0x463b96181691fc9cL, bookMove(2, 5, 4, 5, 0), 1}});
+        Assertions.assertEquals(List.of(new PolyglotBook.BookMove(move(2, 5, 4, 5, null), 1)),
+                PolyglotBook.open(path).moves(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Rejects Truncated File")
+    public void rejectsTruncatedFile() throws IOException {
+        Path path = directory.resolve("broken.bin");
+        Files.write(path, new byte[20]);
+        Assertions.assertThrows(IOException.class, () -> PolyglotBook.open(path, keys));
+    }
+
+    private PolyglotBook writeBook(long[][] entries) throws IOException {
+        return PolyglotBook.open(writeBookFile(entries), keys);
+    }
+
+    private Path writeBookFile(long[][] entries) throws IOException {
+        List<long[]> sorted = new ArrayList<>(List.of(entries));
+        sorted.sort((first, second) -> Long.compareUnsigned(first[0], second[0]));
+        ByteBuffer buffer = ByteBuffer.allocate(entries.length * 16);
+        for(long[] entry : sorted) {
+            buffer.putLong(entry[0]);
+            buffer.putShort((short) entry[2]);
+            buffer.putShort((short) entry[1]);
+            buffer.putInt(0);
+        }
+        Path path = directory.resolve("book.bin");
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    /**
+     * Polyglot stores key, weight, move, learn; the test rows list key, move, weight.
+     */
+    private static long bookMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
+        return (toCol - 1) | ((toRow - 1) << 3) | ((fromCol - 1) << 6) | ((fromRow - 1) << 9) | (promotion << 12);
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+}
@@ -0,0 +1,150 @@
+package chess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+public class PositionAnalyzerTests {
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            //Fool's mate
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",
+            "4k3/8/8/8/8/8/4r3/4K3 w - - 0 1",
+    };
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Status Of FEN Positions")
+    public void fenStatus() throws InterruptedException {
+        List<PositionAnalyzer.Analysis> results = new PositionAnalyzer(executor).analyzeFens(List.of(POSITIONS));
+        Assertions.assertEquals(POSITIONS.length, results.size());
+        assertAnalysis(results.get(0), ChessGame.TeamColor.WHITE, false, false, false, 20);
+        assertAnalysis(results.get(1), ChessGame.TeamColor.WHITE, false, false, false, 48);
+        assertAnalysis(results.get(2), ChessGame.TeamColor.WHITE, true, true, false, 0);
+        assertAnalysis(results.get(3), ChessGame.TeamColor.BLACK, false, false, true, 0);
+        assertAnalysis(results.get(4), ChessGame.TeamColor.WHITE, true, false, false, 3);
+    }
+
+    @Test
+    @DisplayName("Results Keep Input Order Across Batches")
+    public void inputOrder() throws InterruptedException {
+        List<String> fens = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            fens.add(POSITIONS[i % POSITIONS.length]);
+        }
+        List<PositionAnalyzer.Analysis> expected = new PositionAnalyzer(executor, fens.size()).analyzeFens(fens);
+        for(int batchSize : new int[]{1, 7, 64}) {
+            PositionAnalyzer analyzer = new PositionAnalyzer(executor, batchSize);
+            Assertions.assertEquals(expected, analyzer.analyzeFens(new LinkedList<>(fens)));
+
+            List<PositionAnalyzer.Analysis> streamed = new ArrayList<>();
+            analyzer.analyzeFens(fens.stream(), streamed::add);
+            Assertions.assertEquals(expected, streamed);
+        }
+    }
+
+    @Test
+    @DisplayName("Binary Positions Match Their FEN")
+    public void binary() throws InterruptedException {
+        PositionAnalyzer analyzer = new PositionAnalyzer(executor, 2);
+        ByteBuffer packed = ByteBuffer.allocate(POSITIONS.length * GameCodec.POSITION_BYTES);
+        List<ByteBuffer> separate = new ArrayList<>();
+        for(String fen : POSITIONS) {
+            ByteBuffer position = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+            GameCodec.encodePosition(ChessGame.fromFen(fen), position);
+            separate.add(position.flip());
+            GameCodec.encodePosition(ChessGame.fromFen(fen), packed);
+        }
+        packed.flip();
+
+        List<PositionAnalyzer.Analysis> expected = analyzer.analyzeFens(List.of(POSITIONS));
+        Assertions.assertEquals(expected, analyzer.analyzeBinary(packed));
+        Assertions.assertEquals(0, packed.position());
+        Assertions.assertEquals(expected, analyzer.analyzeBinary(separate));
+
+        List<PositionAnalyzer.Analysis> streamed = new ArrayList<>();
+        analyzer.analyzeBinary(separate.stream(), streamed::add);
+        Assertions.assertEquals(expected, streamed);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> analyzer.analyzeBinary(ByteBuffer.allocate(GameCodec.POSITION_BYTES + 1)));
+    }
+
+    @Test
+    @DisplayName("Invalid Positions Get An Error")
+    public void invalid() throws InterruptedException {
+        List<PositionAnalyzer.Analysis> results = new PositionAnalyzer(executor, 2).analyzeFens(
+                List.of(POSITIONS[0], "not a position", "8/8/8/8/8/8/8/8 w - - 0 1", POSITIONS[3]));
+        Assertions.assertTrue(results.get(0).isValid());
+        Assertions.assertFalse(results.get(1).isValid());
+        Assertions.assertFalse(results.get(2).isValid());
+        Assertions.assertTrue(results.get(2).error().contains("king"), results.get(2).error());
+        assertAnalysis(results.get(3), ChessGame.TeamColor.BLACK, false, false, true, 0);
+
+        ByteBuffer truncated = ByteBuffer.allocate(GameCodec.POSITION_BYTES - 1);
+        ByteBuffer empty = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+        List<PositionAnalyzer.Analysis> binary = new PositionAnalyzer(executor).analyzeBinary(List.of(truncated, empty));
+        Assertions.assertFalse(binary.get(0).isValid());
+        Assertions.assertFalse(binary.get(1).isValid());
+        Assertions.assertTrue(binary.get(1).error().contains("king"), binary.get(1).error());
+    }
+
+    @Test
+    @DisplayName("Matches Per-Game Queries")
+    public void matchesChessGame() throws InterruptedException {
+        //Every position one and two plies from Kiwipete
+        List<String> fens = new ArrayList<>();
+        ChessGame game = ChessGame.fromFen(POSITIONS[1]);
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        int[] replies = new int[ChessMovesCalculator.MAX_MOVES];
+        int count = game.legalMoves(moves);
+        for(int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            fens.add(game.toFen());
+            int replyCount = game.legalMoves(replies);
+            for(int j = 0; j < replyCount; j++) {
+                game.makeMove(replies[j]);
+                fens.add(game.toFen());
+                game.unmakeMove();
+            }
+            game.unmakeMove();
+        }
+
+        List<PositionAnalyzer.Analysis> results = new PositionAnalyzer(executor, 100).analyzeFens(fens);
+        IntStream.range(0, fens.size()).forEach(i -> {
+            ChessGame position = ChessGame.fromFen(fens.get(i));
+            ChessGame.TeamColor turn = position.getTeamTurn();
+            assertAnalysis(results.get(i), turn, position.isInCheck(turn), position.isInCheckmate(turn),
+                    position.isInStalemate(turn), position.legalMoves(moves));
+        });
+    }
+
+    private static void assertAnalysis(PositionAnalyzer.Analysis analysis, ChessGame.TeamColor turn, boolean check,
+                                       boolean checkmate, boolean stalemate, int legalMoves) {
+        Assertions.assertEquals(new PositionAnalyzer.Analysis(turn, check, checkmate, stalemate, legalMoves, null),
+                analysis);
+    }
+}
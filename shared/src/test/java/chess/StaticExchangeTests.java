@@ -0,0 +1,119 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StaticExchangeTests {
+
+    @Test
+    @DisplayName("Undefended Piece")
+    public void undefendedPiece() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(320, game.see(move(4, 5, 5, 4)));
+    }
+
+    @Test
+    @DisplayName("Queen Takes Defended Pawn")
+    public void queenTakesDefendedPawn() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |Q| | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(100 - 900, game.see(move(2, 4, 5, 4)));
+    }
+
+    @Test
+    @DisplayName("Rook Battery Wins The Pawn")
+    public void rookBattery() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | |r| | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | |R| | |K|
+                """, ChessGame.TeamColor.WHITE);
+        //Rxe5 Rxe5 Rxe5: the rook behind is uncovered once the front rook has captured.
+        Assertions.assertEquals(100, game.see(move(2, 5, 5, 5)));
+    }
+
+    @Test
+    @DisplayName("Quiet Move Into A Pawn Attack")
+    public void quietMoveHangsPiece() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(-320, game.see(move(3, 6, 5, 4)));
+        Assertions.assertEquals(0, game.see(move(3, 6, 5, 7)));
+    }
+
+    @Test
+    @DisplayName("King Cannot Recapture A Defended Piece")
+    public void kingCannotRecaptureDefendedPiece() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | |k| |
+                | | | | | |p| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| | | | | |
+                | | | | | |Q| | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(100, game.see(move(3, 6, 7, 6)));
+    }
+
+    @Test
+    @DisplayName("En Passant")
+    public void enPassant() throws InvalidMoveException {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.WHITE);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertEquals(100, game.see(move(5, 5, 6, 4)));
+    }
+
+    @Test
+    @DisplayName("Empty Start Square")
+    public void emptyStartSquare() {
+        ChessGame game = new ChessGame();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.see(move(4, 4, 5, 4)));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,256 @@
+package chess;
+
+import chess.engine.LazySmpSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates the KQvK and KRvK tables once and checks them against endgames
+ * whose outcome is known.
+ */
+public class TablebaseTests {
+    @TempDir
+    static Path directory;
+
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        Tablebases none = new Tablebases(directory);
+        TablebaseGenerator.generate("KQvK", directory, none);
+        TablebaseGenerator.generate("KRvK", directory, none);
+        tablebases = new Tablebases(directory);
+    }
+
+    @Test
+    @DisplayName("Checkmate Is Lost")
+    public void checkmate() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | |Q| |
+                | | | | | |K| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.LOSS, 0), tablebases.probe(game));
+    }
+
+    @Test
+    @DisplayName("Mate In One Is Won In One Ply")
+    public void mateInOne() {
+        ChessGame game = TestGames.fromBoard(MATE_IN_ONE, ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.WIN, 1), tablebases.probe(game));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(7, 7), null),
+                tablebases.bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Hanging Queen Is A Draw")
+    public void hangingQueen() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | |Q| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(TablebaseResult.Wdl.DRAW, tablebases.probe(game).wdl());
+    }
+
+    @Test
+    @DisplayName("Stalemate Is A Draw")
+    public void stalemate() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | |K|Q| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.DRAW, 0), tablebases.probe(game));
+    }
+
+    @Test
+    @DisplayName("Colors Swapped Read The Same Table")
+    public void mirrored() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |k| | |
+                |q| | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.WIN, 1), tablebases.probe(game));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(TablebaseResult.Wdl.LOSS, tablebases.probe(game).wdl());
+    }
+
+    @Test
+    @DisplayName("Game Status From Attached Tables")
+    public void gameStatus() throws InvalidMoveException {
+        ChessGame game = TestGames.fromBoard(MATE_IN_ONE, ChessGame.TeamColor.WHITE);
+        Assertions.assertNull(game.tablebaseResult());
+        game.setTablebases(tablebases);
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.WIN, 1), game.tablebaseResult());
+
+        ChessGame copy = new ChessGame(game);
+        copy.makeMove(tablebases.bestMove(copy));
+        Assertions.assertTrue(copy.isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Wdl.LOSS, 0), copy.tablebaseResult());
+        Assertions.assertNull(new ChessGame(new ChessGame()).tablebaseResult());
+    }
+
+    @Test
+    @DisplayName("Longest Wins Match Known Lengths")
+    public void longestWins() throws IOException {
+        //King and queen mate in at most 10 moves, king and rook in at most 16.
+        Assertions.assertEquals(19, longestWin("KQvK"));
+        Assertions.assertEquals(31, longestWin("KRvK"));
+    }
+
+    @Test
+    @DisplayName("Positions Outside The Tables")
+    public void notCovered() {
+        Assertions.assertNull(tablebases.probe(new ChessGame()));
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K|B| | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Assertions.assertNull(tablebases.probe(game));
+        Assertions.assertNull(tablebases.bestMove(game));
+        game.getBoard().removePiece(ChessBoard.square(new ChessPosition(1, 2)));
+        Assertions.assertEquals(TablebaseResult.Wdl.DRAW, tablebases.probe(game).wdl());
+    }
+
+    @Test
+    @DisplayName("Cache Evicts Least Recently Used Table")
+    public void cacheLimits() throws IOException {
+        ChessGame queen = TestGames.fromBoard(MATE_IN_ONE, ChessGame.TeamColor.WHITE);
+        ChessGame rook = TestGames.fromBoard(MATE_IN_ONE.replace('Q', 'R'), ChessGame.TeamColor.WHITE);
+        long fileBytes = Files.size(directory.resolve("KQvK" + Tablebases.EXTENSION));
+
+        Tablebases oneFile = new Tablebases(directory, 1, Long.MAX_VALUE);
+        oneFile.probe(queen);
+        oneFile.probe(rook);
+        Assertions.assertEquals(1, oneFile.openFiles());
+        Assertions.assertEquals(fileBytes, oneFile.mappedBytes());
+
+        Tablebases twoFiles = new Tablebases(directory, 2, 2 * fileBytes);
+        twoFiles.probe(queen);
+        twoFiles.probe(rook);
+        Assertions.assertEquals(2, twoFiles.openFiles());
+
+        //Over the byte budget a single file is still mapped, but never two.
+        Tablebases tinyBudget = new Tablebases(directory, 8, 1);
+        Assertions.assertEquals(TablebaseResult.Wdl.WIN, tinyBudget.probe(queen).wdl());
+        Assertions.assertEquals(TablebaseResult.Wdl.WIN, tinyBudget.probe(rook).wdl());
+        Assertions.assertEquals(1, tinyBudget.openFiles());
+    }
+
+    @Test
+    @DisplayName("Search Converts A Won Endgame")
+    public void searchConverts() throws InvalidMoveException {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K|R| | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        int dtz = tablebases.probe(game).dtz();
+        Search search = new Search();
+        search.setTablebases(tablebases);
+        for(int ply = 0; ply < dtz; ply++) {
+            if(game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                SearchResult result = search.search(game, SearchLimits.depth(4));
+                Assertions.assertEquals(Search.TABLEBASE_WIN, result.score());
+                game.makeMove(result.bestMove());
+            } else {
+                game.makeMove(tablebases.bestMove(game));
+            }
+        }
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Lazy SMP Probes Tables")
+    public void lazySmpProbes() {
+        //Taking the rook reaches a won KQvK ending.
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |r| | | | |
+                | | | |Q| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        try(LazySmpSearch search = new LazySmpSearch(new TranspositionTable(4), 4)) {
+            search.setTablebases(tablebases);
+            SearchResult result = search.search(game, SearchLimits.depth(3));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(4, 4), new ChessPosition(5, 4), null),
+                    result.bestMove());
+            Assertions.assertEquals(Search.TABLEBASE_WIN - 1, result.score());
+        }
+    }
+
+    @Test
+    @DisplayName("Generator Rejects Pawns")
+    public void rejectsPawns() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TablebaseGenerator.generate("KPvK", directory, tablebases));
+    }
+
+    private static final String MATE_IN_ONE = """
+            | | | | | | | |k|
+            |Q| | | | | | | |
+            | | | | | |K| | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            """;
+
+    private static int longestWin(String signature) throws IOException {
+        byte[] table = Files.readAllBytes(directory.resolve(signature + Tablebases.EXTENSION));
+        int longest = 0;
+        for(int i = Tablebases.HEADER_BYTES; i < table.length; i++) {
+            longest = Math.max(longest, table[i]);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,21 @@
+package chess;
+
+import passoff.chess.TestUtilities;
+
+/**
+ * Builds games for the engine tests from the board text used by the passoff tests.
+ */
+public final class TestGames {
+    private TestGames() {
+    }
+
+    /**
+     * @return A new game on the given board with the given team to move
+     */
+    public static ChessGame fromBoard(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}
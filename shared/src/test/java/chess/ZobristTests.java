@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Transpositions Share A Key")
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        play(first, 1, 2, 3, 3);
+        play(first, 8, 2, 6, 3);
+        play(first, 2, 4, 4, 4);
+
+        ChessGame second = new ChessGame();
+        play(second, 2, 4, 4, 4);
+        play(second, 8, 2, 6, 3);
+        play(second, 1, 2, 3, 3);
+
+        Assertions.assertEquals(first.getBoard(), second.getBoard());
+        Assertions.assertEquals(first.zobristKey(), second.zobristKey(), "Same position hashed differently");
+        Assertions.assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    @DisplayName("Key Returns After Knights Go Home")
+    public void knightsReturnHome() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long startKey = game.zobristKey();
+        play(game, 1, 7, 3, 6);
+        Assertions.assertNotEquals(startKey, game.zobristKey());
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        Assertions.assertEquals(startKey, game.zobristKey(), "Incremental key drifted from the start position");
+        Assertions.assertEquals(new ChessGame().getBoard().zobristKey(), game.getBoard().zobristKey());
+    }
+
+    @Test
+    @DisplayName("Side To Move And Castling Rights Change The Key")
+    public void stateChangesKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long startKey = game.zobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(startKey, game.zobristKey(), "Side to move not hashed");
+
+        //Same placement as the start, but both rooks have moved and come back.
+        ChessGame rooksMoved = new ChessGame();
+        play(rooksMoved, 2, 1, 4, 1);
+        play(rooksMoved, 7, 1, 5, 1);
+        play(rooksMoved, 1, 1, 2, 1);
+        play(rooksMoved, 8, 1, 7, 1);
+        play(rooksMoved, 2, 1, 1, 1);
+        play(rooksMoved, 7, 1, 8, 1);
+        ChessGame pawnsOnly = new ChessGame();
+        play(pawnsOnly, 2, 1, 4, 1);
+        play(pawnsOnly, 7, 1, 5, 1);
+        Assertions.assertEquals(pawnsOnly.getBoard(), rooksMoved.getBoard());
+        Assertions.assertNotEquals(pawnsOnly.zobristKey(), rooksMoved.zobristKey(), "Castling rights not hashed");
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+}
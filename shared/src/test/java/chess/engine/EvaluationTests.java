@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMovesCalculator;
+import chess.PieceSquareTables;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.SplittableRandom;
+
+public class EvaluationTests {
+
+    @Test
+    @DisplayName("Start Position Is Balanced")
+    public void startPositionIsBalanced() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0, Evaluation.evaluate(game));
+        Assertions.assertEquals(PieceSquareTables.MAX_PHASE, game.getBoard().gamePhase());
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores The Same For Either Side")
+    public void mirroredPosition() {
+        ChessGame white = new ChessGame();
+        white.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                |P|P| | | | | | |
+                | | | | |K| | | |
+                """));
+        ChessGame black = new ChessGame();
+        black.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                |p|p| | | | | | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        black.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(Evaluation.evaluate(white) > 0);
+        Assertions.assertEquals(Evaluation.evaluate(white), Evaluation.evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Running Sums Match A Full Recompute")
+    public void incrementalMatchesFromScratch() {
+        SplittableRandom random = new SplittableRandom(15);
+        int[] moves = new int[ChessMovesCalculator.MAX_MOVES];
+        for(int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            ChessGame game = new ChessGame();
+            int played = 0;
+            for(int ply = 0; ply < 120; ply++) {
+                int count = game.legalMoves(moves);
+                if(count == 0) {
+                    break;
+                }
+                game.makeMove(moves[random.nextInt(count)]);
+                played++;
+                Assertions.assertEquals(Evaluation.evaluateFromScratch(game), Evaluation.evaluate(game));
+            }
+            for(int i = 0; i < played; i++) {
+                game.unmakeMove();
+                Assertions.assertEquals(Evaluation.evaluateFromScratch(game), Evaluation.evaluate(game));
+            }
+            Assertions.assertEquals(0, Evaluation.evaluate(game));
+        }
+    }
+}
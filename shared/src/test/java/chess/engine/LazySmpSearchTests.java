@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class LazySmpSearchTests {
+
+    @Test
+    @DisplayName("Single Thread Matches Plain Search")
+    public void singleThreadIsDeterministic() {
+        ChessGame game = new ChessGame();
+        SearchResult expected = new Search(new TranspositionTable(4)).search(game, SearchLimits.depth(5));
+        try(LazySmpSearch search = new LazySmpSearch(new TranspositionTable(4), 1)) {
+            SearchResult actual = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(expected.bestMove(), actual.bestMove());
+            Assertions.assertEquals(expected.score(), actual.score());
+            Assertions.assertEquals(expected.nodes(), actual.nodes());
+        }
+    }
+
+    @Test
+    @DisplayName("Helpers Find Mate In One")
+    public void helpersFindMate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        try(LazySmpSearch search = new LazySmpSearch(new TranspositionTable(4), 4)) {
+            SearchResult result = search.search(game, SearchLimits.depth(6));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.bestMove());
+            Assertions.assertEquals(Search.MATE - 1, result.score());
+        }
+    }
+
+    @Test
+    @DisplayName("One Table Generation Per Search")
+    public void generationPerSearch() {
+        ChessGame game = new ChessGame();
+        TranspositionTable table = new TranspositionTable(4);
+        try(LazySmpSearch search = new LazySmpSearch(table, 4)) {
+            for(int i = 1; i <= 3; i++) {
+                search.search(game, SearchLimits.depth(4));
+                Assertions.assertEquals(i, TranspositionTable.generation(table.probe(game.zobristKey())));
+            }
+        }
+        new Search(table).search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(4, TranspositionTable.generation(table.probe(game.zobristKey())));
+    }
+
+    @Test
+    @DisplayName("Reaches Requested Depth")
+    public void reachesRequestedDepth() {
+        ChessGame game = new ChessGame();
+        try(LazySmpSearch search = new LazySmpSearch(new TranspositionTable(4), 4)) {
+            SearchResult result = search.search(game, SearchLimits.depth(6));
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertEquals(6, result.depth());
+            Assertions.assertTrue(search.table().hits() > 0);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LazySmpSearch(new TranspositionTable(1), 0));
+    }
+}
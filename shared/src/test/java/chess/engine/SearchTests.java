@@ -0,0 +1,102 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.TestGames;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove());
+        Assertions.assertTrue(result.isMateScore());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes Undefended Queen")
+    public void takesHangingQueen() {
+        ChessGame game = TestGames.fromBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | | | |N| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(3, 5), new ChessPosition(5, 4), null),
+                result.bestMove());
+        //A knight up, wherever it ends up standing
+        Assertions.assertTrue(result.score() > 200, "Scored " + result.score());
+    }
+
+    @Test
+    @DisplayName("No Move When Mated")
+    public void noMoveWhenMated() {
+        ChessGame game = TestGames.fromBoard("""
+                |R| | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.BLACK);
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    @DisplayName("Stops At Node Limit")
+    public void stopsAtNodeLimit() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new Search().search(game, SearchLimits.nodes(20_000));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 20_000, "Searched " + result.nodes() + " nodes");
+    }
+
+    @Test
+    @DisplayName("Answers Within Time Budget")
+    public void answersWithinTimeBudget() {
+        ChessGame game = new ChessGame();
+        long start = System.nanoTime();
+        SearchResult result = new Search().search(game, SearchLimits.time(100));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(elapsedMillis < 500, "Took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Leaves Game Unchanged")
+    public void leavesGameUnchanged() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessGame before = new ChessGame(game);
+        new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(before, game);
+        Assertions.assertEquals(before.zobristKey(), game.zobristKey());
+    }
+}
@@ -0,0 +1,107 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Size From Megabytes")
+    public void sizeFromMegabytes() {
+        Assertions.assertEquals(65536, new TranspositionTable(1).capacity());
+        Assertions.assertEquals(65536 * 2, new TranspositionTable(3).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("Store And Probe")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEF1L;
+        int move = PackedMove.encode(12, 28, 0, PackedMove.FLAG_DOUBLE_PUSH);
+        table.store(key, move, -250, 7, TranspositionTable.BOUND_LOWER);
+
+        long entry = table.probe(key);
+        Assertions.assertNotEquals(TranspositionTable.MISS, entry);
+        Assertions.assertTrue(PackedMove.sameMove(move, TranspositionTable.move(entry)));
+        Assertions.assertEquals(-250, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key + 1));
+        Assertions.assertEquals(2, table.probes());
+        Assertions.assertEquals(1, table.hits());
+        Assertions.assertEquals(0.5, table.hitRate());
+    }
+
+    @Test
+    @DisplayName("Depth Preferred Replacement")
+    public void depthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deepKey = 5;
+        long shallowKey = 5 + table.capacity();
+        table.store(deepKey, PackedMove.NONE, 10, 8, TranspositionTable.BOUND_EXACT);
+        table.store(shallowKey, PackedMove.NONE, 20, 3, TranspositionTable.BOUND_EXACT);
+        Assertions.assertEquals(8, TranspositionTable.depth(table.probe(deepKey)));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(shallowKey));
+
+        //Entries left by an earlier search give way whatever their depth.
+        table.newSearch();
+        table.store(shallowKey, PackedMove.NONE, 20, 3, TranspositionTable.BOUND_EXACT);
+        Assertions.assertEquals(3, TranspositionTable.depth(table.probe(shallowKey)));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(deepKey));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Return Foreign Entries")
+    public void concurrentWriters() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        //Every thread stores the same small set of slots, with data derived from the key.
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            long seed = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for(int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong() & ~0xFFFFL | (i & 15);
+                    int score = (int) (key >>> 48) & 0x3FFF;
+                    table.store(key, PackedMove.NONE, score, 1, TranspositionTable.BOUND_EXACT);
+                    long entry = table.probe(key);
+                    if(entry != TranspositionTable.MISS && TranspositionTable.score(entry) != score) {
+                        synchronized(failures) {
+                            failures.add(new AssertionError("Entry for another key returned"));
+                        }
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Table Saves Work Between Searches")
+    public void tableSavesWork() {
+        Search search = new Search(new TranspositionTable(4));
+        ChessGame game = new ChessGame();
+        SearchResult first = search.search(game, SearchLimits.depth(5));
+        SearchResult second = search.search(game, SearchLimits.depth(5));
+        Assertions.assertEquals(first.bestMove(), second.bestMove());
+        Assertions.assertTrue(second.nodes() < first.nodes(),
+                "Second search visited " + second.nodes() + " of " + first.nodes() + " nodes");
+        Assertions.assertTrue(search.table().hitRate() > 0);
+    }
+}
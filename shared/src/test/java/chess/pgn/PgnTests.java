@@ -0,0 +1,203 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.San;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PgnTests {
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1.e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3 5. Qxf3 dxe5
+            6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 $4 b5 10. Nxb5! cxb5 (10... Qb4+ 11. Qxb4) 11. Bxb5+
+            Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+            """;
+    private static final String OPERA_FINAL = "1n1Rkb1r/p4ppp/4q3/4p1B1/4P3/8/PPP2PPP/2K5 b k - 1 17";
+
+    private static final String EN_PASSANT_AND_PROMOTION = """
+            [Event "Test"]
+            [White "A \\"Quoted\\" Name"]
+            [Black "Łukasz"]
+            [SetUp "1"]
+            [FEN "4k3/1P6/8/8/3p4/8/4P3/4K3 w - - 0 1"]
+
+            1. e4 dxe3 2. b8=Q+ Kd7 3. Qb5+ *
+            """;
+
+    @Test
+    @DisplayName("Reads Tags And Moves")
+    public void readsGame() {
+        List<PgnGame> games = read(OPERA_GAME + "\n" + EN_PASSANT_AND_PROMOTION, PgnReader.DEFAULT_BUFFER_BYTES);
+        Assertions.assertEquals(2, games.size());
+
+        PgnGame opera = games.get(0);
+        Assertions.assertTrue(opera.isComplete(), opera.error());
+        Assertions.assertEquals("Paul Morphy", opera.tags().get("White"));
+        Assertions.assertEquals("1-0", opera.result());
+        Assertions.assertEquals(33, opera.moves().length);
+        Assertions.assertEquals(OPERA_FINAL, opera.game().toFen());
+        Assertions.assertTrue(opera.game().isInCheckmate(ChessGame.TeamColor.BLACK));
+
+        PgnGame fromFen = games.get(1);
+        Assertions.assertTrue(fromFen.isComplete(), fromFen.error());
+        Assertions.assertEquals("A \"Quoted\" Name", fromFen.tags().get("White"));
+        Assertions.assertEquals("Łukasz", fromFen.tags().get("Black"));
+        Assertions.assertEquals("*", fromFen.result());
+        Assertions.assertEquals("8/3k4/8/1Q6/8/4p3/8/4K3 b - - 2 3", fromFen.game().toFen());
+    }
+
+    @Test
+    @DisplayName("Tokens Split Across Buffer Refills")
+    public void tinyBuffer() {
+        String text = OPERA_GAME + "\n" + EN_PASSANT_AND_PROMOTION;
+        List<String> expected = finalPositions(read(text, PgnReader.DEFAULT_BUFFER_BYTES));
+        for(int bufferBytes = 1; bufferBytes < 12; bufferBytes++) {
+            Assertions.assertEquals(expected, finalPositions(read(text, bufferBytes)));
+        }
+    }
+
+    @Test
+    @DisplayName("Bad Move Keeps The Game And Moves On")
+    public void badMove() {
+        String text = """
+                [Event "Broken"]
+
+                1. e4 e5 2. Ke3 Nc6 3. Nf3 1-0
+
+                [Event "Fine"]
+
+                1. d4 d5 1/2-1/2
+                """;
+        List<PgnGame> games = read(text, 16);
+        Assertions.assertEquals(2, games.size());
+        Assertions.assertFalse(games.get(0).isComplete());
+        Assertions.assertTrue(games.get(0).error().startsWith("Move 2"), games.get(0).error());
+        Assertions.assertEquals(2, games.get(0).moves().length);
+        Assertions.assertEquals("1-0", games.get(0).result());
+        Assertions.assertTrue(games.get(1).isComplete());
+        Assertions.assertEquals("1/2-1/2", games.get(1).result());
+    }
+
+    @Test
+    @DisplayName("Bad FEN Tag Keeps The Game And Moves On")
+    public void badFenTag(@TempDir Path directory) throws IOException {
+        String text = """
+                [FEN "bogus"]
+
+                1. e4 e5 1-0
+
+                [Event "Fine"]
+
+                1. d4 d5 1/2-1/2
+                """;
+        List<PgnGame> games = read(text, 16);
+        Assertions.assertEquals(2, games.size());
+        Assertions.assertFalse(games.get(0).isComplete());
+        Assertions.assertEquals(0, games.get(0).moves().length);
+        Assertions.assertEquals("1-0", games.get(0).result());
+        Assertions.assertTrue(games.get(1).isComplete(), games.get(1).error());
+
+        Path file = directory.resolve("games.pgn");
+        Files.writeString(file, text);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PgnImporter.Summary summary = new PgnImporter(executor, 1).importFile(file, game -> { });
+            Assertions.assertEquals(2, summary.games());
+            Assertions.assertEquals(1, summary.errors());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Game Without Result Ends At The Next Tags")
+    public void missingResult() {
+        List<PgnGame> games = read("[Event \"A\"]\n\n1. e4\n[Event \"B\"]\n\n1. d4 *\n", 64);
+        Assertions.assertEquals(List.of("A", "B"), games.stream().map(game -> game.tags().get("Event")).toList());
+        Assertions.assertEquals("*", games.get(0).result());
+    }
+
+    @Test
+    @DisplayName("Stream Of Games")
+    public void stream() {
+        byte[] bytes = (OPERA_GAME + "\n" + OPERA_GAME).getBytes(StandardCharsets.UTF_8);
+        try(Stream<PgnGame> games = PgnReader.stream(new ByteArrayInputStream(bytes))) {
+            Assertions.assertEquals(List.of(OPERA_FINAL, OPERA_FINAL), games.map(game -> game.game().toFen()).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Import Reads Every Game Once")
+    public void parallelImport(@TempDir Path directory) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 200; i++) {
+            String game = i % 2 == 0 ? OPERA_GAME : EN_PASSANT_AND_PROMOTION;
+            text.append(game.replace("[Event \"", "[Event \"" + i + " ")).append('\n');
+        }
+        Path file = directory.resolve("games.pgn");
+        Files.writeString(file, text);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Set<String> events = ConcurrentHashMap.newKeySet();
+            PgnImporter.Summary summary = new PgnImporter(executor, 1000).importFile(file, game -> {
+                Assertions.assertTrue(game.isComplete(), game.error());
+                events.add(game.tags().get("Event"));
+            });
+            Assertions.assertEquals(200, summary.games());
+            Assertions.assertEquals(0, summary.errors());
+            Assertions.assertEquals(200, events.size());
+            Assertions.assertEquals(Files.size(file), summary.bytes());
+            Assertions.assertTrue(summary.gamesPerSecond() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguation")
+    public void sanDisambiguation() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/2N3N1/8/R3K2R w KQ - 0 1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Ne4"));
+        Assertions.assertEquals(San.parse(game, "Nce4"), San.parse(game, "Nc3e4"));
+        Assertions.assertNotEquals(San.parse(game, "Nce4"), San.parse(game, "Nge4"));
+        Assertions.assertNotEquals(San.parse(game, "O-O"), San.parse(game, "0-0-0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nf4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Zz9"));
+    }
+
+    private static List<PgnGame> read(String text, int bufferBytes) {
+        PgnReader reader = new PgnReader(Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), bufferBytes);
+        List<PgnGame> games = new ArrayList<>();
+        reader.forEachRemaining(games::add);
+        return games;
+    }
+
+    private static List<String> finalPositions(List<PgnGame> games) {
+        return games.stream().map(game -> game.game().toFen()).collect(Collectors.toList());
+    }
+}